@@ -0,0 +1,75 @@
+package ru.craftysoft.platform.gateway.benchmark;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.sun.management.ThreadMXBean;
+import org.openjdk.jmh.annotations.*;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+import ru.craftysoft.platform.gateway.builder.dynamic.DynamicMessageBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DynamicMessageBuilderBenchmark {
+
+    private static final int ALLOCATION_PROBES = 1_000;
+    private static final double ALLOCATION_TOLERANCE = 1.1;
+
+    @Param({"8", "64"})
+    private int width;
+
+    @Param({"1", "4"})
+    private int depth;
+
+    @Param({"1", "100"})
+    private int listSize;
+
+    @Param({"0", "1000"})
+    private int unrelatedTypes;
+
+    private final DynamicMessageBuilder builder = new DynamicMessageBuilder();
+    private Descriptors.Descriptor descriptor;
+    private DescriptorIndex descriptorIndex;
+    private Map<String, Object> input;
+
+    @Setup
+    public void setUp() {
+        var schema = SyntheticSchema.of(width, depth, unrelatedTypes);
+        descriptor = schema.request();
+        descriptorIndex = DescriptorIndex.of(schema.fileDescriptor());
+        input = schema.input(listSize);
+        builder.build(descriptor, descriptorIndex, input, null);
+        if (unrelatedTypes > 0) {
+            var baseline = SyntheticSchema.of(width, depth);
+            var baselineIndex = DescriptorIndex.of(baseline.fileDescriptor());
+            var baselineBytes = allocatedBytesPerBuild(baseline.request(), baselineIndex);
+            var bytes = allocatedBytesPerBuild(descriptor, descriptorIndex);
+            if (bytes > baselineBytes * ALLOCATION_TOLERANCE + 64) {
+                throw new IllegalStateException("Аллокации сборки запроса растут с размером схемы: %d байт против %d без %d посторонних типов"
+                        .formatted(bytes, baselineBytes, unrelatedTypes));
+            }
+        }
+    }
+
+    @Benchmark
+    public DynamicMessage build() {
+        return builder.build(descriptor, descriptorIndex, input, null);
+    }
+
+    private long allocatedBytesPerBuild(Descriptors.Descriptor descriptor, DescriptorIndex descriptorIndex) {
+        for (var i = 0; i < ALLOCATION_PROBES; i++) {
+            builder.build(descriptor, descriptorIndex, input, null);
+        }
+        var threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var threadId = Thread.currentThread().getId();
+        var before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (var i = 0; i < ALLOCATION_PROBES; i++) {
+            builder.build(descriptor, descriptorIndex, input, null);
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - before) / ALLOCATION_PROBES;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.craftysoft.platform.gateway.benchmark;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import org.openjdk.jmh.annotations.*;
+import ru.craftysoft.platform.gateway.builder.dynamic.FileDescriptorResolver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileDescriptorResolverBenchmark {
+
+    @Param({"8", "64"})
+    private int width;
+
+    @Param({"1", "4"})
+    private int depth;
+
+    private final FileDescriptorResolver resolver = new FileDescriptorResolver();
+    private List<ByteString> fileDescriptorProtos;
+
+    @Setup
+    public void setUp() {
+        fileDescriptorProtos = SyntheticSchema.of(width, depth).fileDescriptorProtos();
+    }
+
+    @Benchmark
+    public Descriptors.FileDescriptor resolve() {
+        return resolver.resolve(fileDescriptorProtos);
+    }
+}
@@ -0,0 +1,40 @@
+package ru.craftysoft.platform.gateway.benchmark;
+
+import graphql.GraphQL;
+import io.vertx.core.Future;
+import org.openjdk.jmh.annotations.*;
+import ru.craftysoft.platform.gateway.configuration.GraphQlFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GraphQlFactoryBenchmark {
+
+    @Param({"8", "64"})
+    private int width;
+
+    @Param({"1", "4"})
+    private int depth;
+
+    private List<String> contracts;
+
+    @Setup
+    public void setUp() {
+        contracts = List.of(SyntheticSchema.of(width, depth).graphQlContract());
+    }
+
+    @Benchmark
+    public GraphQL graphQlFromContracts() {
+        return GraphQlFactory.graphQlFromContracts(
+                environment -> Future.succeededFuture(),
+                environment -> null,
+                Map.of(),
+                contracts,
+                List.of()
+        );
+    }
+}
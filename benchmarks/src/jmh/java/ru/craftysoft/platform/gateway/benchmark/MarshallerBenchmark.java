@@ -0,0 +1,53 @@
+package ru.craftysoft.platform.gateway.benchmark;
+
+import com.google.protobuf.DynamicMessage;
+import io.grpc.Drainable;
+import io.grpc.MethodDescriptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.craftysoft.platform.gateway.builder.dynamic.DynamicMessageMethodDescriptorBuilder;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarshallerBenchmark {
+
+    @Param({"8", "64"})
+    private int width;
+
+    @Param({"1", "4"})
+    private int depth;
+
+    @Param({"1", "100"})
+    private int listSize;
+
+    private MethodDescriptor.Marshaller<DynamicMessage> marshaller;
+    private DynamicMessage response;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setUp() {
+        var schema = SyntheticSchema.of(width, depth);
+        var methodDescriptorBuilder = new DynamicMessageMethodDescriptorBuilder(new GatewayMetrics(new SimpleMeterRegistry()));
+        marshaller = methodDescriptorBuilder.build("bench.SyntheticService", "call", schema.request(), schema.response())
+                .getResponseMarshaller();
+        response = schema.responseMessage(listSize);
+        output = new ByteArrayOutputStream(response.getSerializedSize());
+    }
+
+    @Benchmark
+    public int marshal() throws IOException {
+        output.reset();
+        return ((Drainable) marshaller.stream(response)).drainTo(output);
+    }
+
+    @Benchmark
+    public DynamicMessage roundTrip() {
+        return marshaller.parse(marshaller.stream(response));
+    }
+}
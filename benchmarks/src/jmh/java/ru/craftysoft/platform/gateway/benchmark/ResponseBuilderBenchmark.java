@@ -0,0 +1,40 @@
+package ru.craftysoft.platform.gateway.benchmark;
+
+import com.google.protobuf.DynamicMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.craftysoft.platform.gateway.builder.ResponseBuilder;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseBuilderBenchmark {
+
+    @Param({"8", "64"})
+    private int width;
+
+    @Param({"1", "4"})
+    private int depth;
+
+    @Param({"1", "100"})
+    private int listSize;
+
+    private final ResponseBuilder builder = new ResponseBuilder();
+    private DescriptorIndex descriptorIndex;
+    private DynamicMessage response;
+
+    @Setup
+    public void setUp() {
+        var schema = SyntheticSchema.of(width, depth);
+        descriptorIndex = DescriptorIndex.of(schema.fileDescriptor());
+        response = schema.responseMessage(listSize);
+    }
+
+    @Benchmark
+    public void build(Blackhole blackhole) {
+        SyntheticSchema.consume(builder.build(response, descriptorIndex, true), blackhole);
+    }
+}
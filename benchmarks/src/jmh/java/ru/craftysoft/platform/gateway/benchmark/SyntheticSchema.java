@@ -0,0 +1,211 @@
+package ru.craftysoft.platform.gateway.benchmark;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumDescriptorProto;
+import com.google.protobuf.DescriptorProtos.EnumValueDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Timestamp;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SyntheticSchema {
+
+    private static final String PACKAGE = "bench";
+
+    private final int width;
+    private final int depth;
+    private final FileDescriptorProto fileDescriptorProto;
+    private final Descriptors.FileDescriptor fileDescriptor;
+
+    private SyntheticSchema(int width, int depth, int unrelatedTypes) {
+        this.width = width;
+        this.depth = depth;
+        this.fileDescriptorProto = fileDescriptorProto(width, depth, unrelatedTypes);
+        try {
+            this.fileDescriptor = Descriptors.FileDescriptor.buildFrom(
+                    fileDescriptorProto,
+                    new Descriptors.FileDescriptor[]{Timestamp.getDescriptor().getFile()}
+            );
+        } catch (Descriptors.DescriptorValidationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static SyntheticSchema of(int width, int depth) {
+        return new SyntheticSchema(width, depth, 0);
+    }
+
+    public static SyntheticSchema of(int width, int depth, int unrelatedTypes) {
+        return new SyntheticSchema(width, depth, unrelatedTypes);
+    }
+
+    public Descriptors.FileDescriptor fileDescriptor() {
+        return fileDescriptor;
+    }
+
+    public List<ByteString> fileDescriptorProtos() {
+        return List.of(
+                fileDescriptorProto.toByteString(),
+                Timestamp.getDescriptor().getFile().toProto().toByteString()
+        );
+    }
+
+    public Descriptors.Descriptor request() {
+        return fileDescriptor.findMessageTypeByName("Level0");
+    }
+
+    public Descriptors.Descriptor response() {
+        return fileDescriptor.findMessageTypeByName("Response");
+    }
+
+    public Map<String, Object> input(int listSize) {
+        return input(0, listSize);
+    }
+
+    public DynamicMessage responseMessage(int listSize) {
+        var items = response().findFieldByName("items");
+        var builder = DynamicMessage.newBuilder(response());
+        for (var i = 0; i < listSize; i++) {
+            builder.addRepeatedField(items, levelMessage(0, listSize));
+        }
+        return builder.build();
+    }
+
+    public String graphQlContract() {
+        var contract = new StringBuilder("""
+                schema {
+                    query: Query
+                }
+
+                type Query {
+                    call(request: Level0Input): [Level0]
+                }
+
+                scalar Long
+                scalar DateTime
+                scalar Date
+                """);
+        for (var level = 0; level < depth; level++) {
+            contract.append("\ntype Level").append(level).append(" {\n");
+            appendFields(contract, level, "");
+            contract.append("    createdAt: DateTime\n}\n");
+            contract.append("\ninput Level").append(level).append("Input {\n");
+            appendFields(contract, level, "Input");
+            contract.append("}\n");
+        }
+        return contract.toString();
+    }
+
+    public static void consume(Object value, Blackhole blackhole) {
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((key, nested) -> consume(nested, blackhole));
+        } else if (value instanceof List<?> list) {
+            list.forEach(nested -> consume(nested, blackhole));
+        } else {
+            blackhole.consume(value);
+        }
+    }
+
+    private void appendFields(StringBuilder contract, int level, String suffix) {
+        for (var field = 0; field < width; field++) {
+            contract.append("    f").append(field).append(": ").append(field % 2 == 0 ? "String" : "Long").append('\n');
+        }
+        contract.append("    ids: [Long]\n");
+        if (level < depth - 1) {
+            contract.append("    child: Level").append(level + 1).append(suffix).append('\n');
+        }
+    }
+
+    private Map<String, Object> input(int level, int listSize) {
+        var input = new LinkedHashMap<String, Object>();
+        for (var field = 0; field < width; field++) {
+            input.put("f" + field, field % 2 == 0 ? "value-" + field : (Object) (long) field);
+        }
+        var ids = new ArrayList<Object>(listSize);
+        for (var id = 0; id < listSize; id++) {
+            ids.add((long) id);
+        }
+        input.put("ids", ids);
+        if (level < depth - 1) {
+            input.put("child", input(level + 1, listSize));
+        }
+        return input;
+    }
+
+    private DynamicMessage levelMessage(int level, int listSize) {
+        var descriptor = fileDescriptor.findMessageTypeByName("Level" + level);
+        var builder = DynamicMessage.newBuilder(descriptor);
+        for (var field = 0; field < width; field++) {
+            var fieldDescriptor = descriptor.findFieldByName("f" + field);
+            builder.setField(fieldDescriptor, field % 2 == 0 ? "value-" + field : (Object) (long) field);
+        }
+        var ids = descriptor.findFieldByName("ids");
+        for (var id = 0; id < listSize; id++) {
+            builder.addRepeatedField(ids, (long) id);
+        }
+        builder.setField(descriptor.findFieldByName("createdAt"), Timestamp.newBuilder().setSeconds(1_650_000_000L).build());
+        if (level < depth - 1) {
+            builder.setField(descriptor.findFieldByName("child"), levelMessage(level + 1, listSize));
+        }
+        return builder.build();
+    }
+
+    private static FileDescriptorProto fileDescriptorProto(int width, int depth, int unrelatedTypes) {
+        var file = FileDescriptorProto.newBuilder()
+                .setName(PACKAGE + "/synthetic.proto")
+                .setPackage(PACKAGE)
+                .setSyntax("proto3")
+                .addDependency("google/protobuf/timestamp.proto");
+        for (var level = 0; level < depth; level++) {
+            var message = DescriptorProto.newBuilder().setName("Level" + level);
+            for (var field = 0; field < width; field++) {
+                message.addField(field("f" + field, field + 1, field % 2 == 0 ? FieldDescriptorProto.Type.TYPE_STRING : FieldDescriptorProto.Type.TYPE_INT64));
+            }
+            message.addField(field("ids", width + 1, FieldDescriptorProto.Type.TYPE_INT64)
+                    .setLabel(FieldDescriptorProto.Label.LABEL_REPEATED));
+            message.addField(field("createdAt", width + 2, FieldDescriptorProto.Type.TYPE_MESSAGE)
+                    .setTypeName(".google.protobuf.Timestamp"));
+            if (level < depth - 1) {
+                message.addField(field("child", width + 3, FieldDescriptorProto.Type.TYPE_MESSAGE)
+                        .setTypeName("." + PACKAGE + ".Level" + (level + 1)));
+            }
+            file.addMessageType(message);
+        }
+        file.addMessageType(DescriptorProto.newBuilder()
+                .setName("Response")
+                .addField(field("items", 1, FieldDescriptorProto.Type.TYPE_MESSAGE)
+                        .setLabel(FieldDescriptorProto.Label.LABEL_REPEATED)
+                        .setTypeName("." + PACKAGE + ".Level0")));
+        for (var type = 0; type < unrelatedTypes; type++) {
+            file.addEnumType(EnumDescriptorProto.newBuilder()
+                    .setName("Unrelated" + type + "Kind")
+                    .addValue(EnumValueDescriptorProto.newBuilder().setName("UNRELATED" + type + "_UNKNOWN").setNumber(0))
+                    .addValue(EnumValueDescriptorProto.newBuilder().setName("UNRELATED" + type + "_KNOWN").setNumber(1)));
+            file.addMessageType(DescriptorProto.newBuilder()
+                    .setName("Unrelated" + type)
+                    .addField(field("name", 1, FieldDescriptorProto.Type.TYPE_STRING))
+                    .addField(field("kind", 2, FieldDescriptorProto.Type.TYPE_ENUM)
+                            .setTypeName("." + PACKAGE + ".Unrelated" + type + "Kind"))
+                    .addField(field("createdAt", 3, FieldDescriptorProto.Type.TYPE_MESSAGE)
+                            .setTypeName(".google.protobuf.Timestamp")));
+        }
+        return file.build();
+    }
+
+    private static FieldDescriptorProto.Builder field(String name, int number, FieldDescriptorProto.Type type) {
+        return FieldDescriptorProto.newBuilder()
+                .setName(name)
+                .setJsonName(name)
+                .setNumber(number)
+                .setType(type)
+                .setLabel(FieldDescriptorProto.Label.LABEL_OPTIONAL);
+    }
+}
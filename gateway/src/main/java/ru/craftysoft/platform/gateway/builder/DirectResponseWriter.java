@@ -0,0 +1,438 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.protobuf.Descriptors;
+import graphql.schema.*;
+import ru.craftysoft.platform.gateway.builder.DirectSelection.Kind;
+import ru.craftysoft.platform.gateway.builder.DirectSelection.MessageSelection;
+import ru.craftysoft.platform.gateway.builder.DirectSelection.ProtoField;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.protobuf.Descriptors.FieldDescriptor.JavaType.BYTE_STRING;
+import static com.google.protobuf.Descriptors.FieldDescriptor.JavaType.MESSAGE;
+
+@ApplicationScoped
+public class DirectResponseWriter {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private static final Set<String> nullableWrappers = Set.of(
+            "ru.craftysoft.proto.NullableString",
+            "ru.craftysoft.proto.NullableDouble",
+            "ru.craftysoft.proto.NullableFloat",
+            "ru.craftysoft.proto.NullableInt64",
+            "ru.craftysoft.proto.NullableUInt64",
+            "ru.craftysoft.proto.NullableInt32",
+            "ru.craftysoft.proto.NullableUInt32",
+            "ru.craftysoft.proto.NullableBool"
+    );
+    private static final String NULLABLE_BYTES = "ru.craftysoft.proto.NullableBytes";
+    private static final String TIMESTAMP = "google.protobuf.Timestamp";
+    private static final String DATE = "google.type.Date";
+
+    private static final int WIRETYPE_VARINT = 0;
+    private static final int WIRETYPE_FIXED64 = 1;
+    private static final int WIRETYPE_LENGTH_DELIMITED = 2;
+    private static final int WIRETYPE_FIXED32 = 5;
+    private static final int MAXIMUM_CACHED_SELECTIONS = 1_000;
+
+    private final Map<String, GraphQlServicesByMethodsMap.JoinConfiguration> joins;
+    private final Cache<SelectionKey, Optional<DirectSelection>> selections = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_CACHED_SELECTIONS)
+            .build();
+
+    public DirectResponseWriter(GraphQlServicesByMethodsMap graphQlServersByMethods) {
+        this.joins = graphQlServersByMethods.joins();
+    }
+
+    public DirectSelection compile(Descriptors.Descriptor outputType, GraphQLOutputType fieldType, DataFetchingFieldSelectionSet selectionSet) {
+        var key = new SelectionKey(outputType, GraphQLTypeUtil.simplePrint(fieldType), SelectionSignature.of(selectionSet));
+        return selections.get(key, k -> Optional.ofNullable(build(outputType, fieldType, selectionSet))).orElse(null);
+    }
+
+    private DirectSelection build(Descriptors.Descriptor outputType, GraphQLOutputType fieldType, DataFetchingFieldSelectionSet selectionSet) {
+        if (fieldType instanceof GraphQLNonNull) {
+            return null;
+        }
+        if (fieldType instanceof GraphQLList) {
+            var fields = outputType.getFields();
+            if (fields.size() != 1) {
+                return null;
+            }
+            var listField = fields.get(0);
+            if (!listField.isRepeated() || !MESSAGE.equals(listField.getJavaType()) || isWellKnown(listField.getMessageType())) {
+                return null;
+            }
+            var element = compileMessage(listField.getMessageType(), selectionSet.getImmediateFields());
+            return element == null
+                    ? null
+                    : new DirectSelection(listField, element);
+        }
+        var message = compileMessage(outputType, selectionSet.getImmediateFields());
+        return message == null
+                ? null
+                : new DirectSelection(null, message);
+    }
+
+    public RawJson write(byte[] bytes, DirectSelection selection) {
+        var output = new ByteArrayBuilder(Math.max(bytes.length, 256));
+        try (var generator = jsonFactory.createGenerator(output, JsonEncoding.UTF8)) {
+            var rootListField = selection.rootListField();
+            if (rootListField != null) {
+                var occurrences = scan(bytes, 0, bytes.length, new int[]{rootListField.getNumber()})[0];
+                if (occurrences == null) {
+                    generator.writeStartArray();
+                    generator.writeEndArray();
+                } else {
+                    writeMessages(bytes, occurrences, selection.message(), generator);
+                }
+            } else {
+                writeMessage(bytes, 0, bytes.length, selection.message(), generator);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new RawJson(output.toByteArray());
+    }
+
+    private MessageSelection compileMessage(Descriptors.Descriptor descriptor, List<SelectedField> selectedFields) {
+        var fields = new ProtoField[selectedFields.size()];
+        var numbers = new int[selectedFields.size()];
+        for (int i = 0; i < fields.length; i++) {
+            var field = compileField(descriptor, selectedFields.get(i));
+            if (field == null) {
+                return null;
+            }
+            fields[i] = field;
+            numbers[i] = field.field().getNumber();
+        }
+        return new MessageSelection(fields, numbers);
+    }
+
+    private ProtoField compileField(Descriptors.Descriptor descriptor, SelectedField selectedField) {
+        var alias = selectedField.getAlias();
+        if (alias != null && !alias.equals(selectedField.getName()) || !selectedField.getArguments().isEmpty()) {
+            return null;
+        }
+        if (selectedField.getType() instanceof GraphQLNonNull || isJoin(selectedField)) {
+            return null;
+        }
+        var field = descriptor.findFieldByName(selectedField.getName());
+        if (field == null || BYTE_STRING.equals(field.getJavaType())) {
+            return null;
+        }
+        var name = new SerializedString(selectedField.getName());
+        var subFields = selectedField.getSelectionSet().getImmediateFields();
+        if (!MESSAGE.equals(field.getJavaType())) {
+            return subFields.isEmpty()
+                    ? new ProtoField(name, field, field.isRepeated() ? Kind.REPEATED_SCALAR : Kind.SCALAR, null, null)
+                    : null;
+        }
+        var messageType = field.getMessageType();
+        var fullName = messageType.getFullName();
+        if (field.isRepeated()) {
+            if (isWellKnown(messageType) || subFields.isEmpty()) {
+                return null;
+            }
+            var nested = compileMessage(messageType, subFields);
+            return nested == null
+                    ? null
+                    : new ProtoField(name, field, Kind.REPEATED_MESSAGE, null, nested);
+        }
+        if (nullableWrappers.contains(fullName)) {
+            return subFields.isEmpty()
+                    ? new ProtoField(name, field, Kind.WRAPPER, messageType.findFieldByNumber(1), null)
+                    : null;
+        }
+        if (TIMESTAMP.equals(fullName) || DATE.equals(fullName)) {
+            return subFields.isEmpty()
+                    ? new ProtoField(name, field, TIMESTAMP.equals(fullName) ? Kind.TIMESTAMP : Kind.DATE, null, null)
+                    : null;
+        }
+        if (NULLABLE_BYTES.equals(fullName) || subFields.isEmpty()) {
+            return null;
+        }
+        var nested = compileMessage(messageType, subFields);
+        return nested == null
+                ? null
+                : new ProtoField(name, field, Kind.MESSAGE, null, nested);
+    }
+
+    private boolean isJoin(SelectedField selectedField) {
+        return selectedField.getObjectTypeNames().stream()
+                .anyMatch(typeName -> joins.containsKey(typeName + "." + selectedField.getName()));
+    }
+
+    private boolean isWellKnown(Descriptors.Descriptor descriptor) {
+        var fullName = descriptor.getFullName();
+        return nullableWrappers.contains(fullName)
+                || NULLABLE_BYTES.equals(fullName)
+                || TIMESTAMP.equals(fullName)
+                || DATE.equals(fullName);
+    }
+
+    private void writeMessages(byte[] bytes, Occurrences occurrences, MessageSelection selection, JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (int i = 0; i < occurrences.size; i++) {
+            var position = occurrences.positions[i];
+            var length = (int) readVarint(bytes, position);
+            var start = position + varintSize(bytes, position);
+            writeMessage(bytes, start, length, selection, generator);
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeMessage(byte[] bytes, int offset, int length, MessageSelection selection, JsonGenerator generator) throws IOException {
+        var occurrences = scan(bytes, offset, length, selection.numbers());
+        generator.writeStartObject();
+        var fields = selection.fields();
+        for (int i = 0; i < fields.length; i++) {
+            var field = fields[i];
+            generator.writeFieldName(field.name());
+            var fieldOccurrences = occurrences[i];
+            if (fieldOccurrences == null) {
+                generator.writeNull();
+                continue;
+            }
+            if (Kind.REPEATED_MESSAGE.equals(field.kind())) {
+                writeMessages(bytes, fieldOccurrences, field.nested(), generator);
+                continue;
+            }
+            if (Kind.REPEATED_SCALAR.equals(field.kind())) {
+                writeScalars(bytes, fieldOccurrences, field.field(), generator);
+                continue;
+            }
+            var position = fieldOccurrences.positions[fieldOccurrences.size - 1];
+            var wireType = fieldOccurrences.wireTypes[fieldOccurrences.size - 1];
+            switch (field.kind()) {
+                case SCALAR -> writeScalar(bytes, position, wireType, field.field(), generator);
+                case MESSAGE -> {
+                    var messageLength = (int) readVarint(bytes, position);
+                    writeMessage(bytes, position + varintSize(bytes, position), messageLength, field.nested(), generator);
+                }
+                case WRAPPER -> writeWrapper(bytes, position, field.wrappedValueField(), generator);
+                case TIMESTAMP -> writeTimestamp(bytes, position, generator);
+                case DATE -> writeDate(bytes, position, generator);
+                default -> generator.writeNull();
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeScalars(byte[] bytes, Occurrences occurrences, Descriptors.FieldDescriptor field, JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (int i = 0; i < occurrences.size; i++) {
+            var position = occurrences.positions[i];
+            var wireType = occurrences.wireTypes[i];
+            if (wireType != WIRETYPE_LENGTH_DELIMITED || !field.isPackable()) {
+                writeScalar(bytes, position, wireType, field, generator);
+                continue;
+            }
+            var elementWireType = packedWireType(field);
+            var offset = position + varintSize(bytes, position);
+            var limit = offset + (int) readVarint(bytes, position);
+            while (offset < limit) {
+                writeScalar(bytes, offset, elementWireType, field, generator);
+                offset = skip(bytes, offset, elementWireType);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private static int packedWireType(Descriptors.FieldDescriptor field) {
+        return switch (field.getType()) {
+            case FIXED64, SFIXED64, DOUBLE -> WIRETYPE_FIXED64;
+            case FIXED32, SFIXED32, FLOAT -> WIRETYPE_FIXED32;
+            default -> WIRETYPE_VARINT;
+        };
+    }
+
+    private void writeWrapper(byte[] bytes, int position, Descriptors.FieldDescriptor valueField, JsonGenerator generator) throws IOException {
+        var length = (int) readVarint(bytes, position);
+        var start = position + varintSize(bytes, position);
+        var occurrences = scan(bytes, start, length, new int[]{valueField.getNumber()})[0];
+        if (occurrences == null) {
+            generator.writeNull();
+        } else {
+            writeScalar(bytes, occurrences.positions[occurrences.size - 1], occurrences.wireTypes[occurrences.size - 1], valueField, generator);
+        }
+    }
+
+    private void writeTimestamp(byte[] bytes, int position, JsonGenerator generator) throws IOException {
+        var parts = readNumericParts(bytes, position, 2);
+        if (parts[0] == 0 && parts[1] == 0) {
+            generator.writeNull();
+        } else {
+            var dateTime = Instant.ofEpochSecond(parts[0], (int) parts[1]).atOffset(ZoneOffset.UTC);
+            generator.writeString(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(dateTime));
+        }
+    }
+
+    private void writeDate(byte[] bytes, int position, JsonGenerator generator) throws IOException {
+        var parts = readNumericParts(bytes, position, 3);
+        if (parts[0] == 0 && parts[1] == 0 && parts[2] == 0) {
+            generator.writeNull();
+        } else {
+            var date = LocalDate.of((int) parts[0], (int) parts[1], (int) parts[2]);
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE.format(date));
+        }
+    }
+
+    private long[] readNumericParts(byte[] bytes, int position, int count) {
+        var parts = new long[count];
+        var length = (int) readVarint(bytes, position);
+        var offset = position + varintSize(bytes, position);
+        var limit = offset + length;
+        while (offset < limit) {
+            var tag = (int) readVarint(bytes, offset);
+            offset += varintSize(bytes, offset);
+            var number = tag >>> 3;
+            var wireType = tag & 7;
+            if (wireType == WIRETYPE_VARINT && number >= 1 && number <= count) {
+                parts[number - 1] = readVarint(bytes, offset);
+            }
+            offset = skip(bytes, offset, wireType);
+        }
+        return parts;
+    }
+
+    private void writeScalar(byte[] bytes, int position, int wireType, Descriptors.FieldDescriptor field, JsonGenerator generator) throws IOException {
+        switch (field.getType()) {
+            case STRING -> {
+                if (wireType != WIRETYPE_LENGTH_DELIMITED) {
+                    generator.writeNull();
+                    return;
+                }
+                var length = (int) readVarint(bytes, position);
+                generator.writeUTF8String(bytes, position + varintSize(bytes, position), length);
+            }
+            case INT32, UINT32 -> generator.writeNumber((int) readVarint(bytes, position));
+            case SINT32 -> {
+                var value = (int) readVarint(bytes, position);
+                generator.writeNumber((value >>> 1) ^ -(value & 1));
+            }
+            case INT64, UINT64 -> generator.writeNumber(readVarint(bytes, position));
+            case SINT64 -> {
+                var value = readVarint(bytes, position);
+                generator.writeNumber((value >>> 1) ^ -(value & 1));
+            }
+            case FIXED32, SFIXED32 -> generator.writeNumber(readFixed32(bytes, position));
+            case FIXED64, SFIXED64 -> generator.writeNumber(readFixed64(bytes, position));
+            case FLOAT -> generator.writeNumber(Float.intBitsToFloat(readFixed32(bytes, position)));
+            case DOUBLE -> generator.writeNumber(Double.longBitsToDouble(readFixed64(bytes, position)));
+            case BOOL -> generator.writeBoolean(readVarint(bytes, position) != 0);
+            case ENUM -> {
+                var value = field.getEnumType().findValueByNumber((int) readVarint(bytes, position));
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(value.getName());
+                }
+            }
+            default -> generator.writeNull();
+        }
+    }
+
+    private Occurrences[] scan(byte[] bytes, int offset, int length, int[] numbers) {
+        var occurrences = new Occurrences[numbers.length];
+        var limit = offset + length;
+        while (offset < limit) {
+            var tag = (int) readVarint(bytes, offset);
+            offset += varintSize(bytes, offset);
+            var number = tag >>> 3;
+            var wireType = tag & 7;
+            for (int i = 0; i < numbers.length; i++) {
+                if (numbers[i] == number) {
+                    var fieldOccurrences = occurrences[i];
+                    if (fieldOccurrences == null) {
+                        fieldOccurrences = new Occurrences();
+                        occurrences[i] = fieldOccurrences;
+                    }
+                    fieldOccurrences.add(offset, wireType);
+                    break;
+                }
+            }
+            offset = skip(bytes, offset, wireType);
+        }
+        return occurrences;
+    }
+
+    private static int skip(byte[] bytes, int offset, int wireType) {
+        return switch (wireType) {
+            case WIRETYPE_VARINT -> offset + varintSize(bytes, offset);
+            case WIRETYPE_FIXED64 -> offset + 8;
+            case WIRETYPE_LENGTH_DELIMITED -> offset + varintSize(bytes, offset) + (int) readVarint(bytes, offset);
+            case WIRETYPE_FIXED32 -> offset + 4;
+            default -> throw new IllegalStateException("Неподдерживаемый wire type=" + wireType);
+        };
+    }
+
+    private static long readVarint(byte[] bytes, int offset) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            var b = bytes[offset++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Некорректный varint");
+    }
+
+    private static int varintSize(byte[] bytes, int offset) {
+        var size = 1;
+        while ((bytes[offset++] & 0x80) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static int readFixed32(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+                | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    private static long readFixed64(byte[] bytes, int offset) {
+        return (readFixed32(bytes, offset) & 0xFFFFFFFFL) | (long) readFixed32(bytes, offset + 4) << 32;
+    }
+
+    private static class Occurrences {
+        private int[] positions = new int[4];
+        private int[] wireTypes = new int[4];
+        private int size;
+
+        private void add(int position, int wireType) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                wireTypes = Arrays.copyOf(wireTypes, size * 2);
+            }
+            positions[size] = position;
+            wireTypes[size] = wireType;
+            size++;
+        }
+    }
+
+    private record SelectionKey(Descriptors.Descriptor outputType, String fieldType, String selection) {
+    }
+}
@@ -0,0 +1,27 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.google.protobuf.Descriptors;
+
+public record DirectSelection(Descriptors.FieldDescriptor rootListField, MessageSelection message) {
+
+    record MessageSelection(ProtoField[] fields, int[] numbers) {
+    }
+
+    record ProtoField(SerializedString name,
+                         Descriptors.FieldDescriptor field,
+                         Kind kind,
+                         Descriptors.FieldDescriptor wrappedValueField,
+                         MessageSelection nested) {
+    }
+
+    enum Kind {
+        SCALAR,
+        REPEATED_SCALAR,
+        WRAPPER,
+        TIMESTAMP,
+        DATE,
+        MESSAGE,
+        REPEATED_MESSAGE
+    }
+}
@@ -0,0 +1,98 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+public class DynamicMessageMapView extends AbstractMap<String, Object> {
+
+    private static final Object UNRESOLVED = new Object();
+
+    private final DynamicMessage message;
+    private final DescriptorIndex descriptorIndex;
+    private final Object[] values;
+
+    DynamicMessageMapView(DynamicMessage message, DescriptorIndex descriptorIndex) {
+        this.message = message;
+        this.descriptorIndex = descriptorIndex;
+        this.values = new Object[message.getDescriptorForType().getFields().size()];
+    }
+
+    public Descriptors.Descriptor descriptor() {
+        return message.getDescriptorForType();
+    }
+
+    public Object get(Descriptors.FieldDescriptor field) {
+        var index = field.getIndex();
+        var value = values[index];
+        if (value == null) {
+            value = ResponseValues.resolveFieldValue(message, field, descriptorIndex);
+            values[index] = value == null ? UNRESOLVED : value;
+            return value;
+        }
+        return value == UNRESOLVED ? null : value;
+    }
+
+    public Object getWithDefault(Descriptors.FieldDescriptor field) {
+        if (field.isRepeated() || field.hasPresence()) {
+            return get(field);
+        }
+        return ResponseValues.resolveValue(message.getField(field), descriptorIndex);
+    }
+
+    @Override
+    public Object get(Object key) {
+        var field = field(key);
+        return field == null
+                ? null
+                : get(field);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        var field = field(key);
+        return field != null && get(field) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        var fields = message.getAllFields().keySet();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                var iterator = fields.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        var field = iterator.next();
+                        return new SimpleImmutableEntry<>(field.getName(), get(field));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return fields.size();
+            }
+        };
+    }
+
+    private Descriptors.FieldDescriptor field(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        Map<String, Descriptors.FieldDescriptor> fields = descriptorIndex.fields(message.getDescriptorForType());
+        return fields.get(name);
+    }
+}
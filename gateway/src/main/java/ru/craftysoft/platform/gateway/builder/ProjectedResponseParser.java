@@ -0,0 +1,188 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import ru.craftysoft.platform.gateway.builder.ResponseProjection.FieldProjection;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.protobuf.Descriptors.FieldDescriptor.JavaType.MESSAGE;
+
+@ApplicationScoped
+public class ProjectedResponseParser {
+
+    private static final Set<String> wholeMessageTypes = Set.of(
+            "ru.craftysoft.proto.NullableString",
+            "ru.craftysoft.proto.NullableDouble",
+            "ru.craftysoft.proto.NullableFloat",
+            "ru.craftysoft.proto.NullableInt64",
+            "ru.craftysoft.proto.NullableUInt64",
+            "ru.craftysoft.proto.NullableInt32",
+            "ru.craftysoft.proto.NullableUInt32",
+            "ru.craftysoft.proto.NullableBool",
+            "ru.craftysoft.proto.NullableBytes",
+            "google.protobuf.Timestamp",
+            "google.type.Date"
+    );
+
+    private static final int WIRETYPE_LENGTH_DELIMITED = 2;
+    private static final int MAXIMUM_CACHED_PROJECTIONS = 1_000;
+
+    private final Map<String, GraphQlServicesByMethodsMap.JoinConfiguration> joins;
+    private final Cache<ProjectionKey, ResponseProjection> projections = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_CACHED_PROJECTIONS)
+            .build();
+
+    public ProjectedResponseParser(GraphQlServicesByMethodsMap graphQlServersByMethods) {
+        this.joins = graphQlServersByMethods.joins();
+    }
+
+    public ResponseProjection compile(Descriptors.Descriptor outputType, boolean list, DataFetchingFieldSelectionSet selectionSet) {
+        var key = new ProjectionKey(outputType, list, SelectionSignature.of(selectionSet));
+        return projections.get(key, k -> build(outputType, list, selectionSet));
+    }
+
+    private ResponseProjection build(Descriptors.Descriptor outputType, boolean list, DataFetchingFieldSelectionSet selectionSet) {
+        if (list) {
+            var fieldsByNumbers = new HashMap<Integer, FieldProjection>();
+            for (var field : outputType.getFields()) {
+                if (field.isRepeated() && MESSAGE.equals(field.getJavaType())) {
+                    var nested = compile(field.getMessageType(), selectionSet.getImmediateFields());
+                    fieldsByNumbers.put(field.getNumber(), new FieldProjection(field, nested));
+                }
+            }
+            return ResponseProjection.of(outputType, fieldsByNumbers);
+        }
+        return compile(outputType, selectionSet.getImmediateFields());
+    }
+
+    public DynamicMessage parse(byte[] bytes, ResponseProjection projection) {
+        try {
+            var input = CodedInputStream.newInstance(bytes);
+            input.enableAliasing(true);
+            return parse(input, projection);
+        } catch (IOException e) {
+            throw new IllegalStateException("Ошибка при разборе ответа", e);
+        }
+    }
+
+    private ResponseProjection compile(Descriptors.Descriptor descriptor, List<SelectedField> selectedFields) {
+        var subFieldsByFields = new LinkedHashMap<Descriptors.FieldDescriptor, List<SelectedField>>();
+        for (var selectedField : selectedFields) {
+            var field = descriptor.findFieldByName(selectedField.getName());
+            if (field != null) {
+                subFieldsByFields.computeIfAbsent(field, key -> new ArrayList<>())
+                        .addAll(selectedField.getSelectionSet().getImmediateFields());
+            }
+        }
+        var fieldsByNumbers = new HashMap<Integer, FieldProjection>();
+        subFieldsByFields.forEach((field, subFields) -> {
+            var nested = MESSAGE.equals(field.getJavaType())
+                    && !subFields.isEmpty()
+                    && !wholeMessageTypes.contains(field.getMessageType().getFullName())
+                    ? compile(field.getMessageType(), subFields)
+                    : null;
+            fieldsByNumbers.put(field.getNumber(), new FieldProjection(field, nested));
+        });
+        for (var selectedField : selectedFields) {
+            for (var typeName : selectedField.getObjectTypeNames()) {
+                var join = joins.get(typeName + "." + selectedField.getName());
+                var sourceField = join != null ? descriptor.findFieldByName(join.sourceField()) : null;
+                if (sourceField != null) {
+                    fieldsByNumbers.putIfAbsent(sourceField.getNumber(), new FieldProjection(sourceField, null));
+                }
+            }
+        }
+        return ResponseProjection.of(descriptor, fieldsByNumbers);
+    }
+
+    private DynamicMessage parse(CodedInputStream input, ResponseProjection projection) throws IOException {
+        var builder = DynamicMessage.newBuilder(projection.descriptor());
+        while (true) {
+            var tag = input.readTag();
+            if (tag == 0) {
+                break;
+            }
+            var fieldProjection = projection.field(tag >>> 3);
+            if (fieldProjection == null) {
+                input.skipField(tag);
+                continue;
+            }
+            var field = fieldProjection.field();
+            if (MESSAGE.equals(field.getJavaType())) {
+                var value = readMessage(input, fieldProjection);
+                if (field.isRepeated()) {
+                    builder.addRepeatedField(field, value);
+                } else {
+                    builder.setField(field, value);
+                }
+            } else if (field.isRepeated() && (tag & 7) == WIRETYPE_LENGTH_DELIMITED && field.isPackable()) {
+                var length = input.readRawVarint32();
+                var limit = input.pushLimit(length);
+                while (input.getBytesUntilLimit() > 0) {
+                    builder.addRepeatedField(field, readScalar(input, field));
+                }
+                input.popLimit(limit);
+            } else if (field.isRepeated()) {
+                builder.addRepeatedField(field, readScalar(input, field));
+            } else {
+                builder.setField(field, readScalar(input, field));
+            }
+        }
+        return builder.build();
+    }
+
+    private DynamicMessage readMessage(CodedInputStream input, FieldProjection fieldProjection) throws IOException {
+        if (fieldProjection.nested() == null) {
+            var builder = DynamicMessage.newBuilder(fieldProjection.field().getMessageType());
+            input.readMessage(builder, ExtensionRegistryLite.getEmptyRegistry());
+            return builder.build();
+        }
+        var length = input.readRawVarint32();
+        var limit = input.pushLimit(length);
+        var message = parse(input, fieldProjection.nested());
+        input.checkLastTagWas(0);
+        input.popLimit(limit);
+        return message;
+    }
+
+    private Object readScalar(CodedInputStream input, Descriptors.FieldDescriptor field) throws IOException {
+        return switch (field.getType()) {
+            case DOUBLE -> input.readDouble();
+            case FLOAT -> input.readFloat();
+            case INT64 -> input.readInt64();
+            case UINT64 -> input.readUInt64();
+            case INT32 -> input.readInt32();
+            case FIXED64 -> input.readFixed64();
+            case FIXED32 -> input.readFixed32();
+            case BOOL -> input.readBool();
+            case STRING -> input.readString();
+            case BYTES -> input.readBytes();
+            case UINT32 -> input.readUInt32();
+            case ENUM -> field.getEnumType().findValueByNumberCreatingIfUnknown(input.readEnum());
+            case SFIXED32 -> input.readSFixed32();
+            case SFIXED64 -> input.readSFixed64();
+            case SINT32 -> input.readSInt32();
+            case SINT64 -> input.readSInt64();
+            default -> throw new InvalidProtocolBufferException("Неподдерживаемый тип поля " + field.getFullName());
+        };
+    }
+
+    private record ProjectionKey(Descriptors.Descriptor outputType, boolean list, String selection) {
+    }
+}
@@ -0,0 +1,122 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class RawJson implements SerializableString {
+
+    private final byte[] bytes;
+    private String value;
+    private SerializedString quoted;
+
+    public RawJson(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+
+    @Override
+    public String getValue() {
+        var result = value;
+        if (result == null) {
+            result = new String(bytes, StandardCharsets.UTF_8);
+            value = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+
+    @Override
+    public char[] asQuotedChars() {
+        return quoted().asQuotedChars();
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+        return bytes;
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+        return quoted().asQuotedUTF8();
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+        return quoted().appendQuotedUTF8(buffer, offset);
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+        return quoted().appendQuoted(buffer, offset);
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+        if (offset + bytes.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+        return bytes.length;
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+        var chars = getValue();
+        if (offset + chars.length() > buffer.length) {
+            return -1;
+        }
+        chars.getChars(0, chars.length(), buffer, offset);
+        return chars.length();
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+        return quoted().writeQuotedUTF8(out);
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) {
+        return quoted().putQuotedUTF8(buffer);
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) {
+        if (bytes.length > buffer.remaining()) {
+            return -1;
+        }
+        buffer.put(bytes);
+        return bytes.length;
+    }
+
+    @Override
+    public String toString() {
+        return getValue();
+    }
+
+    private SerializedString quoted() {
+        var result = quoted;
+        if (result == null) {
+            result = new SerializedString(getValue());
+            quoted = result;
+        }
+        return result;
+    }
+}
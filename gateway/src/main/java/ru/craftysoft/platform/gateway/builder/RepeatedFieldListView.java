@@ -0,0 +1,38 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+public class RepeatedFieldListView extends AbstractList<Object> implements RandomAccess {
+
+    private final DynamicMessage message;
+    private final Descriptors.FieldDescriptor field;
+    private final DescriptorIndex descriptorIndex;
+    private final Object[] values;
+
+    RepeatedFieldListView(DynamicMessage message, Descriptors.FieldDescriptor field, DescriptorIndex descriptorIndex) {
+        this.message = message;
+        this.field = field;
+        this.descriptorIndex = descriptorIndex;
+        this.values = new Object[message.getRepeatedFieldCount(field)];
+    }
+
+    @Override
+    public Object get(int index) {
+        var value = values[index];
+        if (value == null) {
+            value = ResponseValues.resolveValue(message.getRepeatedField(field, index), descriptorIndex);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+}
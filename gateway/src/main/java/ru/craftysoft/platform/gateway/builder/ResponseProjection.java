@@ -0,0 +1,29 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.google.protobuf.Descriptors;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public record ResponseProjection(Descriptors.Descriptor descriptor, int[] numbers, FieldProjection[] fields) {
+
+    static ResponseProjection of(Descriptors.Descriptor descriptor, Map<Integer, FieldProjection> fieldsByNumbers) {
+        var numbers = fieldsByNumbers.keySet().stream()
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+        var fields = new FieldProjection[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            fields[i] = fieldsByNumbers.get(numbers[i]);
+        }
+        return new ResponseProjection(descriptor, numbers, fields);
+    }
+
+    public FieldProjection field(int number) {
+        var index = Arrays.binarySearch(numbers, number);
+        return index < 0 ? null : fields[index];
+    }
+
+    public record FieldProjection(Descriptors.FieldDescriptor field, ResponseProjection nested) {
+    }
+}
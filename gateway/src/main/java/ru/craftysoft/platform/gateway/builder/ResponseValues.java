@@ -0,0 +1,79 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import lombok.NoArgsConstructor;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@NoArgsConstructor(access = PRIVATE)
+class ResponseValues {
+
+    static Object resolveFieldValue(DynamicMessage message, Descriptors.FieldDescriptor field, DescriptorIndex descriptorIndex) {
+        if (field.isRepeated()) {
+            return message.getRepeatedFieldCount(field) == 0
+                    ? null
+                    : new RepeatedFieldListView(message, field, descriptorIndex);
+        }
+        if (!message.hasField(field)) {
+            return null;
+        }
+        return resolveValue(message.getField(field), descriptorIndex);
+    }
+
+    static Object resolveValue(Object value, DescriptorIndex descriptorIndex) {
+        if (value instanceof DynamicMessage dynamicMessage) {
+            return resolveDynamicMessageValue(dynamicMessage, descriptorIndex);
+        }
+        if (value instanceof Descriptors.EnumValueDescriptor enm) {
+            return enm.getName();
+        }
+        return value;
+    }
+
+    private static Object resolveDynamicMessageValue(DynamicMessage dynamicMessage, DescriptorIndex descriptorIndex) {
+        var descriptor = dynamicMessage.getDescriptorForType();
+        switch (descriptor.getFullName()) {
+            case "ru.craftysoft.proto.NullableString",
+                    "ru.craftysoft.proto.NullableDouble",
+                    "ru.craftysoft.proto.NullableFloat",
+                    "ru.craftysoft.proto.NullableInt64",
+                    "ru.craftysoft.proto.NullableUInt64",
+                    "ru.craftysoft.proto.NullableInt32",
+                    "ru.craftysoft.proto.NullableUInt32",
+                    "ru.craftysoft.proto.NullableBool",
+                    "ru.craftysoft.proto.NullableBytes" -> {
+                var valueField = dynamicMessage.getOneofFieldDescriptor(descriptor.getOneofs().get(0));
+                if (valueField == null || valueField.getJavaType() == Descriptors.FieldDescriptor.JavaType.ENUM) {
+                    return null;
+                }
+                return dynamicMessage.getField(valueField);
+            }
+            case "google.type.Date" -> {
+                var fields = descriptorIndex.fields(descriptor);
+                var year = (int) dynamicMessage.getField(fields.get("year"));
+                var month = (int) dynamicMessage.getField(fields.get("month"));
+                var day = (int) dynamicMessage.getField(fields.get("day"));
+                return year == 0 && month == 0 && day == 0
+                        ? null
+                        : LocalDate.of(year, month, day);
+            }
+            case "google.protobuf.Timestamp" -> {
+                var fields = descriptorIndex.fields(descriptor);
+                var seconds = (long) dynamicMessage.getField(fields.get("seconds"));
+                var nanos = (int) dynamicMessage.getField(fields.get("nanos"));
+                return seconds == 0 && nanos == 0
+                        ? null
+                        : Instant.ofEpochSecond(seconds, nanos).atOffset(ZoneOffset.UTC);
+            }
+            default -> {
+                return new DynamicMessageMapView(dynamicMessage, descriptorIndex);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.SelectedField;
+
+import java.util.List;
+
+public final class SelectionSignature {
+
+    private SelectionSignature() {
+    }
+
+    public static String of(DataFetchingFieldSelectionSet selectionSet) {
+        var signature = new StringBuilder();
+        append(signature, selectionSet.getImmediateFields());
+        return signature.toString();
+    }
+
+    private static void append(StringBuilder signature, List<SelectedField> selectedFields) {
+        for (var selectedField : selectedFields) {
+            signature.append(selectedField.getResultKey())
+                    .append(':')
+                    .append(selectedField.getFullyQualifiedName());
+            if (!selectedField.getArguments().isEmpty()) {
+                signature.append("()");
+            }
+            signature.append(':').append(GraphQLTypeUtil.simplePrint(selectedField.getType()));
+            var subFields = selectedField.getSelectionSet().getImmediateFields();
+            if (!subFields.isEmpty()) {
+                signature.append('{');
+                append(signature, subFields);
+                signature.append('}');
+            }
+            signature.append(',');
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.craftysoft.platform.gateway.builder.dynamic;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumDescriptor;
+import ru.craftysoft.platform.gateway.builder.dynamic.converter.MessageConverter;
+import ru.craftysoft.platform.gateway.builder.dynamic.converter.MessageConverterCompiler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class DescriptorIndex {
+
+    private final Map<String, Descriptor> descriptors;
+    private final Map<String, EnumDescriptor> enums;
+    private final Map<Descriptor, MessageConverter> converters = new ConcurrentHashMap<>();
+    private final Map<Descriptor, Map<String, Descriptors.FieldDescriptor>> fieldsByNames = new ConcurrentHashMap<>();
+
+    private DescriptorIndex(Map<String, Descriptor> descriptors, Map<String, EnumDescriptor> enums) {
+        this.descriptors = descriptors;
+        this.enums = enums;
+    }
+
+    public static DescriptorIndex of(Descriptors.FileDescriptor fileDescriptor) {
+        var descriptors = new HashMap<String, Descriptor>();
+        var enums = new HashMap<String, EnumDescriptor>();
+        var loop = new ArrayDeque<Descriptor>();
+        for (var file : extractDependencies(fileDescriptor)) {
+            loop.addAll(file.getMessageTypes());
+            file.getEnumTypes().forEach(enumDescriptor -> enums.put(enumDescriptor.getFullName(), enumDescriptor));
+        }
+        while (!loop.isEmpty()) {
+            var descriptor = loop.pop();
+            if (descriptors.putIfAbsent(descriptor.getFullName(), descriptor) == null) {
+                loop.addAll(descriptor.getNestedTypes());
+                descriptor.getEnumTypes().forEach(enumDescriptor -> enums.put(enumDescriptor.getFullName(), enumDescriptor));
+            }
+        }
+        return new DescriptorIndex(Map.copyOf(descriptors), Map.copyOf(enums));
+    }
+
+    public Descriptor descriptor(Descriptor descriptor) {
+        return descriptors.getOrDefault(descriptor.getFullName(), descriptor);
+    }
+
+    public EnumDescriptor enumDescriptor(EnumDescriptor enumDescriptor) {
+        return enums.getOrDefault(enumDescriptor.getFullName(), enumDescriptor);
+    }
+
+    public MessageConverter converter(Descriptor descriptor) {
+        var converter = converters.get(descriptor);
+        if (converter != null) {
+            return converter;
+        }
+        return converters.computeIfAbsent(descriptor, d -> MessageConverterCompiler.compile(d, this));
+    }
+
+    public Map<String, Descriptors.FieldDescriptor> fields(Descriptor descriptor) {
+        var fields = fieldsByNames.get(descriptor);
+        if (fields != null) {
+            return fields;
+        }
+        return fieldsByNames.computeIfAbsent(descriptor, d -> d.getFields().stream()
+                .collect(Collectors.toUnmodifiableMap(Descriptors.FieldDescriptor::getName, Function.identity())));
+    }
+
+    private static Set<Descriptors.FileDescriptor> extractDependencies(Descriptors.FileDescriptor fileDescriptor) {
+        var loop = new ArrayDeque<Descriptors.FileDescriptor>();
+        loop.add(fileDescriptor);
+        var fileDescriptorSet = new LinkedHashSet<Descriptors.FileDescriptor>();
+        fileDescriptorSet.add(fileDescriptor);
+        while (!loop.isEmpty()) {
+            var fd = loop.pop();
+            for (var dependency : fd.getDependencies()) {
+                if (fileDescriptorSet.add(dependency)) {
+                    loop.push(dependency);
+                }
+            }
+        }
+        return fileDescriptorSet;
+    }
+}
@@ -1,50 +1,204 @@
 package ru.craftysoft.platform.gateway.builder.dynamic;
 
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.ExtensionRegistryLite;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
 import io.grpc.MethodDescriptor;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
 
 import javax.enterprise.context.ApplicationScoped;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
 
 import static io.grpc.MethodDescriptor.MethodType.UNARY;
 
 @ApplicationScoped
+@RequiredArgsConstructor
 public class DynamicMessageMethodDescriptorBuilder {
 
+    private final GatewayMetrics metrics;
+
     public MethodDescriptor<DynamicMessage, DynamicMessage> build(String serviceName,
                                                                   String methodName,
                                                                   Descriptors.Descriptor inputType,
                                                                   Descriptors.Descriptor outputType) {
+        return build(serviceName, methodName, inputType, outputType, UNARY);
+    }
+
+    public MethodDescriptor<DynamicMessage, DynamicMessage> build(String serviceName,
+                                                                  String methodName,
+                                                                  Descriptors.Descriptor inputType,
+                                                                  Descriptors.Descriptor outputType,
+                                                                  MethodDescriptor.MethodType type) {
         var fullMethodName = MethodDescriptor.generateFullMethodName(serviceName, methodName);
         return MethodDescriptor.<DynamicMessage, DynamicMessage>newBuilder()
-                .setType(UNARY)
+                .setType(type)
                 .setFullMethodName(fullMethodName)
-                .setRequestMarshaller(new DynamicMessageMarshaller(inputType))
-                .setResponseMarshaller(new DynamicMessageMarshaller(outputType))
+                .setRequestMarshaller(new DynamicMessageMarshaller(inputType, metrics.requestMarshallingMeters(fullMethodName)))
+                .setResponseMarshaller(new DynamicMessageMarshaller(outputType, metrics.responseMarshallingMeters(fullMethodName)))
+                .build();
+    }
+
+    public MethodDescriptor<DynamicMessage, byte[]> buildRaw(MethodDescriptor<DynamicMessage, DynamicMessage> methodDescriptor) {
+        var meters = metrics.responseMarshallingMeters(methodDescriptor.getFullMethodName());
+        return methodDescriptor.toBuilder(methodDescriptor.getRequestMarshaller(), new ByteArrayMarshaller(meters))
                 .build();
     }
 
     private static class DynamicMessageMarshaller implements MethodDescriptor.Marshaller<DynamicMessage> {
         private final Descriptors.Descriptor messageDescriptor;
+        private final GatewayMetrics.MarshallingMeters meters;
 
-        public DynamicMessageMarshaller(Descriptors.Descriptor messageDescriptor) {
+        public DynamicMessageMarshaller(Descriptors.Descriptor messageDescriptor, GatewayMetrics.MarshallingMeters meters) {
             this.messageDescriptor = messageDescriptor;
+            this.meters = meters;
         }
 
         @Override
         @SneakyThrows
         public DynamicMessage parse(InputStream inputStream) {
-            return DynamicMessage.newBuilder(messageDescriptor)
-                    .mergeFrom(inputStream, ExtensionRegistryLite.getEmptyRegistry())
+            var startedAt = System.nanoTime();
+            CodedInputStream input;
+            if (inputStream instanceof KnownLength) {
+                var bytes = readKnownLength(inputStream);
+                input = CodedInputStream.newInstance(bytes);
+                input.enableAliasing(true);
+            } else {
+                input = CodedInputStream.newInstance(inputStream);
+            }
+            input.setSizeLimit(Integer.MAX_VALUE);
+            var message = DynamicMessage.newBuilder(messageDescriptor)
+                    .mergeFrom(input, ExtensionRegistryLite.getEmptyRegistry())
                     .build();
+            record(meters, input.getTotalBytesRead(), startedAt);
+            return message;
+        }
+
+        @Override
+        public InputStream stream(DynamicMessage message) {
+            return new DynamicMessageInputStream(message, meters);
+        }
+    }
+
+    private static class ByteArrayMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+
+        private final GatewayMetrics.MarshallingMeters meters;
+
+        private ByteArrayMarshaller(GatewayMetrics.MarshallingMeters meters) {
+            this.meters = meters;
+        }
+
+        @Override
+        @SneakyThrows
+        public byte[] parse(InputStream inputStream) {
+            var startedAt = System.nanoTime();
+            var bytes = inputStream instanceof KnownLength
+                    ? readKnownLength(inputStream)
+                    : inputStream.readAllBytes();
+            record(meters, bytes.length, startedAt);
+            return bytes;
+        }
+
+        @Override
+        public InputStream stream(byte[] bytes) {
+            return new KnownLengthByteArrayInputStream(bytes);
+        }
+    }
+
+    private static void record(GatewayMetrics.MarshallingMeters meters, int size, long startedAt) {
+        meters.timer().record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        meters.size().record(size);
+    }
+
+    private static byte[] readKnownLength(InputStream inputStream) throws IOException {
+        var bytes = new byte[inputStream.available()];
+        var read = inputStream.readNBytes(bytes, 0, bytes.length);
+        if (read != bytes.length) {
+            throw new EOFException("Ожидалось %d байт, прочитано %d".formatted(bytes.length, read));
+        }
+        return bytes;
+    }
+
+    private static class DynamicMessageInputStream extends InputStream implements KnownLength, Drainable {
+
+        private final GatewayMetrics.MarshallingMeters meters;
+        private DynamicMessage message;
+        private ByteArrayInputStream partial;
+
+        private DynamicMessageInputStream(DynamicMessage message, GatewayMetrics.MarshallingMeters meters) {
+            this.message = message;
+            this.meters = meters;
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            if (message != null) {
+                var startedAt = System.nanoTime();
+                var written = message.getSerializedSize();
+                message.writeTo(target);
+                message = null;
+                record(meters, written, startedAt);
+                return written;
+            }
+            if (partial != null) {
+                var written = (int) partial.transferTo(target);
+                partial = null;
+                return written;
+            }
+            return 0;
+        }
+
+        @Override
+        public int read() {
+            return partial().read();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            return partial().read(bytes, offset, length);
+        }
+
+        @Override
+        public int available() {
+            if (message != null) {
+                return message.getSerializedSize();
+            }
+            return partial != null ? partial.available() : 0;
+        }
+
+        private ByteArrayInputStream partial() {
+            if (message != null) {
+                var startedAt = System.nanoTime();
+                var bytes = message.toByteArray();
+                partial = new ByteArrayInputStream(bytes);
+                message = null;
+                record(meters, bytes.length, startedAt);
+            }
+            return partial != null ? partial : new ByteArrayInputStream(new byte[0]);
+        }
+    }
+
+    private static class KnownLengthByteArrayInputStream extends ByteArrayInputStream implements KnownLength, Drainable {
+
+        private KnownLengthByteArrayInputStream(byte[] bytes) {
+            super(bytes);
         }
 
         @Override
-        public InputStream stream(DynamicMessage abstractMessage) {
-            return abstractMessage.toByteString().newInput();
+        public int drainTo(OutputStream target) throws IOException {
+            var written = available();
+            target.write(buf, pos, written);
+            pos = count;
+            return written;
         }
     }
 
@@ -1,5 +1,6 @@
 package ru.craftysoft.platform.gateway.builder.dynamic;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.DescriptorProtos;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -8,6 +9,7 @@ import io.grpc.reflection.v1alpha.ServerReflectionResponse;
 import javax.enterprise.context.ApplicationScoped;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -16,16 +18,18 @@ import java.util.stream.Collectors;
 public class FileDescriptorResolver {
 
     public Descriptors.FileDescriptor resolve(ServerReflectionResponse serverReflectionResponse) {
-        var fileDescriptorsWithDependencies = resolveFileDescriptorsWithDependencies(serverReflectionResponse);
+        return resolve(serverReflectionResponse.getFileDescriptorResponse().getFileDescriptorProtoList());
+    }
+
+    public Descriptors.FileDescriptor resolve(List<ByteString> fileDescriptorProtos) {
+        var fileDescriptorsWithDependencies = resolveFileDescriptorsWithDependencies(fileDescriptorProtos);
         var wrapper = new FileDescriptorHolder();
         resolveFullFileDescriptor(fileDescriptorsWithDependencies, new HashMap<>(), wrapper);
         return wrapper.fileDescriptor;
     }
 
-    private Map<DescriptorProtos.FileDescriptorProto, Set<String>> resolveFileDescriptorsWithDependencies(ServerReflectionResponse serverReflectionResponse) {
-        return serverReflectionResponse
-                .getFileDescriptorResponse()
-                .getFileDescriptorProtoList().stream()
+    private Map<DescriptorProtos.FileDescriptorProto, Set<String>> resolveFileDescriptorsWithDependencies(List<ByteString> fileDescriptorProtos) {
+        return fileDescriptorProtos.stream()
                 .map(fileDescriptorBytes -> {
                     try {
                         return DescriptorProtos.FileDescriptorProto.parseFrom(fileDescriptorBytes);
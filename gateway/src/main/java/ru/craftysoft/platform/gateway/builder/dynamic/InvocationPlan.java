@@ -0,0 +1,21 @@
+package ru.craftysoft.platform.gateway.builder.dynamic;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import io.grpc.MethodDescriptor;
+
+public record InvocationPlan(Descriptors.MethodDescriptor method,
+                             Descriptors.Descriptor inputType,
+                             Descriptors.Descriptor outputType,
+                             DescriptorIndex descriptorIndex,
+                             MethodDescriptor<DynamicMessage, DynamicMessage> methodDescriptor,
+                             MethodDescriptor<DynamicMessage, byte[]> rawMethodDescriptor) {
+
+    public MethodDescriptor.Marshaller<DynamicMessage> requestMarshaller() {
+        return methodDescriptor.getRequestMarshaller();
+    }
+
+    public MethodDescriptor.Marshaller<DynamicMessage> responseMarshaller() {
+        return methodDescriptor.getResponseMarshaller();
+    }
+}
@@ -0,0 +1,82 @@
+package ru.craftysoft.platform.gateway.builder.dynamic;
+
+import com.google.protobuf.Descriptors;
+import io.grpc.MethodDescriptor;
+import lombok.RequiredArgsConstructor;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+public class InvocationPlanRegistry {
+
+    private final MethodDescriptorResolver methodDescriptorResolver;
+    private final DescriptorResolver descriptorResolver;
+    private final DynamicMessageMethodDescriptorBuilder methodDescriptorBuilder;
+
+    private final Map<ServiceKey, ServicePlans> plans = new ConcurrentHashMap<>();
+
+    public InvocationPlan resolve(String serverName, String serviceName, String methodName, Descriptors.FileDescriptor fileDescriptor) {
+        var servicePlans = resolveServicePlans(serverName, serviceName, fileDescriptor);
+        var plan = servicePlans.plansByMethods().get(methodName);
+        if (plan == null) {
+            throw new IllegalArgumentException("Метод '%s' не найден в сервисе '%s'".formatted(methodName, serviceName));
+        }
+        return plan;
+    }
+
+    public Map<String, InvocationPlan> resolveAll(String serverName, String serviceName, Descriptors.FileDescriptor fileDescriptor) {
+        return resolveServicePlans(serverName, serviceName, fileDescriptor).plansByMethods();
+    }
+
+    private ServicePlans resolveServicePlans(String serverName, String serviceName, Descriptors.FileDescriptor fileDescriptor) {
+        var serviceKey = new ServiceKey(serverName, serviceName);
+        var servicePlans = plans.get(serviceKey);
+        if (servicePlans != null && servicePlans.fileDescriptor() == fileDescriptor) {
+            return servicePlans;
+        }
+        return plans.compute(serviceKey, (key, current) -> current != null && current.fileDescriptor() == fileDescriptor
+                ? current
+                : build(serviceName, fileDescriptor));
+    }
+
+    private ServicePlans build(String serviceName, Descriptors.FileDescriptor fileDescriptor) {
+        var descriptorIndex = DescriptorIndex.of(fileDescriptor);
+        var plansByMethods = methodDescriptorResolver.resolveAll(fileDescriptor, serviceName).stream()
+                .map(method -> build(serviceName, method, fileDescriptor, descriptorIndex))
+                .collect(Collectors.toUnmodifiableMap(plan -> plan.method().getName(), Function.identity()));
+        return new ServicePlans(fileDescriptor, plansByMethods);
+    }
+
+    private InvocationPlan build(String serviceName,
+                                 Descriptors.MethodDescriptor method,
+                                 Descriptors.FileDescriptor fileDescriptor,
+                                 DescriptorIndex descriptorIndex) {
+        var inputTypeDescriptor = descriptorResolver.resolve(method.getInputType(), fileDescriptor);
+        var outputTypeDescriptor = descriptorResolver.resolve(method.getOutputType(), fileDescriptor);
+        var methodDescriptor = methodDescriptorBuilder.build(serviceName, method.getName(), inputTypeDescriptor, outputTypeDescriptor, methodType(method));
+        var rawMethodDescriptor = methodDescriptorBuilder.buildRaw(methodDescriptor);
+        return new InvocationPlan(method, inputTypeDescriptor, outputTypeDescriptor, descriptorIndex, methodDescriptor, rawMethodDescriptor);
+    }
+
+    private static MethodDescriptor.MethodType methodType(Descriptors.MethodDescriptor method) {
+        if (method.isClientStreaming()) {
+            return method.isServerStreaming()
+                    ? MethodDescriptor.MethodType.BIDI_STREAMING
+                    : MethodDescriptor.MethodType.CLIENT_STREAMING;
+        }
+        return method.isServerStreaming()
+                ? MethodDescriptor.MethodType.SERVER_STREAMING
+                : MethodDescriptor.MethodType.UNARY;
+    }
+
+    private record ServiceKey(String serverName, String serviceName) {
+    }
+
+    private record ServicePlans(Descriptors.FileDescriptor fileDescriptor, Map<String, InvocationPlan> plansByMethods) {
+    }
+}
@@ -0,0 +1,41 @@
+package ru.craftysoft.platform.gateway.builder.dynamic.converter;
+
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.DynamicMessage;
+
+import java.util.List;
+
+public class FieldWriter {
+
+    private final String name;
+    private final FieldDescriptor field;
+    private final boolean repeated;
+    private final ValueConverter valueConverter;
+
+    FieldWriter(FieldDescriptor field, ValueConverter valueConverter) {
+        this.name = field.getName();
+        this.field = field;
+        this.repeated = field.isRepeated();
+        this.valueConverter = valueConverter;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void write(DynamicMessage.Builder builder, Object value) {
+        if (repeated) {
+            if (value == null) {
+                return;
+            }
+            for (var item : (List<?>) value) {
+                builder.addRepeatedField(field, valueConverter.convert(item));
+            }
+        } else {
+            var convertedValue = valueConverter.convert(value);
+            if (convertedValue != null) {
+                builder.setField(field, convertedValue);
+            }
+        }
+    }
+}
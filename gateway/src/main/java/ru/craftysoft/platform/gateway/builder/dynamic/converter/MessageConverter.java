@@ -0,0 +1,84 @@
+package ru.craftysoft.platform.gateway.builder.dynamic.converter;
+
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.FieldMask;
+import graphql.schema.DataFetchingFieldSelectionSet;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class MessageConverter {
+
+    private final Descriptor descriptor;
+    private final FieldWriter[] rootFieldWriters;
+    private final FieldWriter[] nestedFieldWriters;
+    private final FieldDescriptor[] fieldMaskFields;
+
+    MessageConverter(Descriptor descriptor,
+                     FieldWriter[] rootFieldWriters,
+                     FieldWriter[] nestedFieldWriters,
+                     FieldDescriptor[] fieldMaskFields) {
+        this.descriptor = descriptor;
+        this.rootFieldWriters = rootFieldWriters;
+        this.nestedFieldWriters = nestedFieldWriters;
+        this.fieldMaskFields = fieldMaskFields;
+    }
+
+    public DynamicMessage convert(Map<String, Object> input, DataFetchingFieldSelectionSet selectionSet) {
+        var builder = DynamicMessage.newBuilder(descriptor);
+        if (input == null) {
+            return builder.build();
+        }
+        if (fieldMaskFields.length > 0) {
+            var fieldMask = buildFieldMask(selectionSet);
+            for (var fieldMaskField : fieldMaskFields) {
+                builder.setField(fieldMaskField, fieldMask);
+            }
+        }
+        write(builder, rootFieldWriters, input);
+        return builder.build();
+    }
+
+    DynamicMessage convertNested(Map<String, Object> input) {
+        var builder = DynamicMessage.newBuilder(descriptor);
+        if (input != null) {
+            write(builder, nestedFieldWriters, input);
+        }
+        return builder.build();
+    }
+
+    private static void write(DynamicMessage.Builder builder, FieldWriter[] fieldWriters, Map<String, Object> input) {
+        for (var fieldWriter : fieldWriters) {
+            var value = input.get(fieldWriter.name());
+            if (value == null && !input.containsKey(fieldWriter.name())) {
+                continue;
+            }
+            fieldWriter.write(builder, value);
+        }
+    }
+
+    private static FieldMask buildFieldMask(DataFetchingFieldSelectionSet selectionSet) {
+        var selectedFields = new LinkedHashSet<String>();
+        fillSelectedFields(selectedFields, "", selectionSet);
+        return FieldMask.newBuilder()
+                .addAllPaths(selectedFields)
+                .build();
+    }
+
+    private static void fillSelectedFields(Set<String> selectedFields, String prefix, DataFetchingFieldSelectionSet selectionSet) {
+        selectionSet.getImmediateFields().forEach(selectedField -> {
+            var immediateSelectionSet = selectedField.getSelectionSet();
+            var fieldName = prefix.isEmpty()
+                    ? selectedField.getName()
+                    : prefix + "." + selectedField.getName();
+            if (immediateSelectionSet.getImmediateFields().isEmpty()) {
+                selectedFields.add(fieldName);
+            } else {
+                fillSelectedFields(selectedFields, fieldName, immediateSelectionSet);
+            }
+        });
+    }
+}
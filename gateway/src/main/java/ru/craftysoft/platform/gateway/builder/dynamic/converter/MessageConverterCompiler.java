@@ -0,0 +1,168 @@
+package ru.craftysoft.platform.gateway.builder.dynamic.converter;
+
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.type.Date;
+import lombok.NoArgsConstructor;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+import ru.craftysoft.proto.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static com.google.protobuf.NullValue.NULL_VALUE;
+import static lombok.AccessLevel.PRIVATE;
+
+@NoArgsConstructor(access = PRIVATE)
+public class MessageConverterCompiler {
+
+    private static final String FIELD_MASK = "google.protobuf.FieldMask";
+
+    private static final ValueConverter IDENTITY = value -> value;
+    private static final ValueConverter TO_LONG = value -> value == null ? null : ((Number) value).longValue();
+    private static final ValueConverter TO_INT = value -> value == null ? null : ((Number) value).intValue();
+    private static final ValueConverter TO_FLOAT = value -> value == null ? null : ((Number) value).floatValue();
+    private static final ValueConverter TO_DOUBLE = value -> value == null ? null : ((Number) value).doubleValue();
+
+    private static final ValueConverter TIMESTAMP = value -> {
+        if (value == null) {
+            return Timestamp.getDefaultInstance();
+        }
+        var dateTime = (OffsetDateTime) value;
+        return Timestamp.newBuilder()
+                .setSeconds(dateTime.toEpochSecond())
+                .setNanos(dateTime.getNano())
+                .build();
+    };
+    private static final ValueConverter DATE = value -> {
+        if (value == null) {
+            return Date.getDefaultInstance();
+        }
+        var localDate = (LocalDate) value;
+        return Date.newBuilder()
+                .setYear(localDate.getYear())
+                .setMonth(localDate.getMonthValue())
+                .setDay(localDate.getDayOfMonth())
+                .build();
+    };
+
+    private static final NullableString NULL_STRING = NullableString.newBuilder().setNullValue(NULL_VALUE).build();
+    private static final NullableDouble NULL_DOUBLE = NullableDouble.newBuilder().setNullValue(NULL_VALUE).build();
+    private static final NullableFloat NULL_FLOAT = NullableFloat.newBuilder().setNullValue(NULL_VALUE).build();
+    private static final NullableInt64 NULL_INT64 = NullableInt64.newBuilder().setNullValue(NULL_VALUE).build();
+    private static final NullableUInt64 NULL_UINT64 = NullableUInt64.newBuilder().setNullValue(NULL_VALUE).build();
+    private static final NullableInt32 NULL_INT32 = NullableInt32.newBuilder().setNullValue(NULL_VALUE).build();
+    private static final NullableUInt32 NULL_UINT32 = NullableUInt32.newBuilder().setNullValue(NULL_VALUE).build();
+    private static final NullableBool NULL_BOOL = NullableBool.newBuilder().setNullValue(NULL_VALUE).build();
+    private static final NullableBytes NULL_BYTES = NullableBytes.newBuilder().setNullValue(NULL_VALUE).build();
+
+    private static final Map<String, ValueConverter> WELL_KNOWN_TYPES = Map.ofEntries(
+            Map.entry("google.protobuf.Timestamp", TIMESTAMP),
+            Map.entry("google.type.Date", DATE),
+            Map.entry("ru.craftysoft.proto.NullableString", value -> value == null
+                    ? NULL_STRING
+                    : NullableString.newBuilder().setValue((String) value).build()),
+            Map.entry("ru.craftysoft.proto.NullableDouble", value -> value == null
+                    ? NULL_DOUBLE
+                    : NullableDouble.newBuilder().setValue(((Number) value).doubleValue()).build()),
+            Map.entry("ru.craftysoft.proto.NullableFloat", value -> value == null
+                    ? NULL_FLOAT
+                    : NullableFloat.newBuilder().setValue(((Number) value).floatValue()).build()),
+            Map.entry("ru.craftysoft.proto.NullableInt64", value -> value == null
+                    ? NULL_INT64
+                    : NullableInt64.newBuilder().setValue(((Number) value).longValue()).build()),
+            Map.entry("ru.craftysoft.proto.NullableUInt64", value -> value == null
+                    ? NULL_UINT64
+                    : NullableUInt64.newBuilder().setValue(((Number) value).longValue()).build()),
+            Map.entry("ru.craftysoft.proto.NullableInt32", value -> value == null
+                    ? NULL_INT32
+                    : NullableInt32.newBuilder().setValue(((Number) value).intValue()).build()),
+            Map.entry("ru.craftysoft.proto.NullableUInt32", value -> value == null
+                    ? NULL_UINT32
+                    : NullableUInt32.newBuilder().setValue(((Number) value).intValue()).build()),
+            Map.entry("ru.craftysoft.proto.NullableBool", value -> value == null
+                    ? NULL_BOOL
+                    : NullableBool.newBuilder().setValue((Boolean) value).build()),
+            Map.entry("ru.craftysoft.proto.NullableBytes", value -> value == null
+                    ? NULL_BYTES
+                    : NullableBytes.newBuilder().setValue(UnsafeByteOperations.unsafeWrap((byte[]) value)).build())
+    );
+
+    public static MessageConverter compile(Descriptor descriptor, DescriptorIndex descriptorIndex) {
+        var rootFieldWriters = new ArrayList<FieldWriter>();
+        var nestedFieldWriters = new ArrayList<FieldWriter>();
+        var fieldMaskFields = new ArrayList<FieldDescriptor>();
+        for (var field : descriptor.getFields()) {
+            var fieldWriter = new FieldWriter(field, compileValueConverter(field, descriptorIndex));
+            nestedFieldWriters.add(fieldWriter);
+            if (isFieldMask(field)) {
+                fieldMaskFields.add(field);
+            } else {
+                rootFieldWriters.add(fieldWriter);
+            }
+        }
+        return new MessageConverter(
+                descriptor,
+                rootFieldWriters.toArray(FieldWriter[]::new),
+                nestedFieldWriters.toArray(FieldWriter[]::new),
+                fieldMaskFields.toArray(FieldDescriptor[]::new)
+        );
+    }
+
+    private static ValueConverter compileValueConverter(FieldDescriptor field, DescriptorIndex descriptorIndex) {
+        return switch (field.getJavaType()) {
+            case MESSAGE -> {
+                var fieldTypeDescriptor = descriptorIndex.descriptor(field.getMessageType());
+                var wellKnownTypeConverter = WELL_KNOWN_TYPES.get(fieldTypeDescriptor.getFullName());
+                yield wellKnownTypeConverter != null
+                        ? wellKnownTypeConverter
+                        : new NestedMessageConverter(fieldTypeDescriptor, descriptorIndex);
+            }
+            case ENUM -> enumConverter(descriptorIndex.enumDescriptor(field.getEnumType()));
+            case LONG -> TO_LONG;
+            case INT -> TO_INT;
+            case FLOAT -> TO_FLOAT;
+            case DOUBLE -> TO_DOUBLE;
+            default -> IDENTITY;
+        };
+    }
+
+    private static ValueConverter enumConverter(EnumDescriptor enumDescriptor) {
+        return value -> value == null
+                ? null
+                : enumDescriptor.findValueByName(value.toString());
+    }
+
+    private static boolean isFieldMask(FieldDescriptor field) {
+        return FieldDescriptor.JavaType.MESSAGE.equals(field.getJavaType())
+                && FIELD_MASK.equals(field.getMessageType().getFullName());
+    }
+
+    private static class NestedMessageConverter implements ValueConverter {
+
+        private final Descriptor descriptor;
+        private final DescriptorIndex descriptorIndex;
+        private MessageConverter messageConverter;
+
+        private NestedMessageConverter(Descriptor descriptor, DescriptorIndex descriptorIndex) {
+            this.descriptor = descriptor;
+            this.descriptorIndex = descriptorIndex;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object convert(Object value) {
+            var converter = messageConverter;
+            if (converter == null) {
+                converter = descriptorIndex.converter(descriptor);
+                messageConverter = converter;
+            }
+            return converter.convertNested((Map<String, Object>) value);
+        }
+    }
+}
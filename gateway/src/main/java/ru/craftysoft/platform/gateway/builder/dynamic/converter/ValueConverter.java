@@ -0,0 +1,8 @@
+package ru.craftysoft.platform.gateway.builder.dynamic.converter;
+
+@FunctionalInterface
+public interface ValueConverter {
+
+    Object convert(Object value);
+
+}
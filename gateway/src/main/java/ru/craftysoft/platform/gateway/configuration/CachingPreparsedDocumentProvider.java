@@ -0,0 +1,74 @@
+package ru.craftysoft.platform.gateway.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+    private static final int MAXIMUM_SIZE = 1_000;
+    private static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+
+    private final Cache<String, PreparsedDocumentEntry> documents = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+    private final PreparsedDocumentProvider persistedQuerySupport = new ApolloPersistedQuerySupport(new PersistedDocuments());
+
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                              Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        var extensions = executionInput.getExtensions();
+        if (extensions != null && extensions.containsKey(PERSISTED_QUERY_EXTENSION)) {
+            return persistedQuerySupport.getDocument(executionInput, parseAndValidateFunction);
+        }
+        return documents.get(executionInput.getQuery(), query -> parseAndValidateFunction.apply(executionInput));
+    }
+
+    private static class PersistedDocuments implements PersistedQueryCache {
+
+        private final Cache<Object, PreparsedDocumentEntry> documents = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .build();
+
+        @Override
+        public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId,
+                                                                ExecutionInput executionInput,
+                                                                PersistedQueryCacheMiss onCacheMiss) throws PersistedQueryNotFound {
+            var document = documents.getIfPresent(persistedQueryId);
+            if (document != null) {
+                return document;
+            }
+            var query = executionInput.getQuery();
+            if (query == null || query.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+                throw new PersistedQueryNotFound(persistedQueryId);
+            }
+            document = onCacheMiss.apply(query);
+            if (sha256(query).equalsIgnoreCase(String.valueOf(persistedQueryId))) {
+                documents.put(persistedQueryId, document);
+            }
+            return document;
+        }
+
+        private static String sha256(String query) {
+            try {
+                var digest = MessageDigest.getInstance("SHA-256");
+                return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
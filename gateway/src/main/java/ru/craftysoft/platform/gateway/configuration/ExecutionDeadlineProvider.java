@@ -0,0 +1,55 @@
+package ru.craftysoft.platform.gateway.configuration;
+
+import graphql.GraphQLContext;
+import graphql.GraphqlErrorException;
+import io.grpc.Deadline;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.graphql.ExecutionInputBuilderWithContext;
+import lombok.RequiredArgsConstructor;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Optional.ofNullable;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+public class ExecutionDeadlineProvider {
+
+    private final GraphQlServicesByMethodsMap graphQlServersByMethods;
+
+    public void beforeExecute(ExecutionInputBuilderWithContext<RoutingContext> input) {
+        var configuration = graphQlServersByMethods.deadline();
+        var operationName = input.builder().build().getOperationName();
+        var budget = ofNullable(input.context().request().getHeader(configuration.header()))
+                .map(ExecutionDeadlineProvider::parseBudget)
+                .or(() -> ofNullable(operationName).map(configuration.budgetsByOperations()::get))
+                .orElse(configuration.defaultBudget());
+        var deadline = Deadline.after(Math.min(budget, configuration.maxBudget()), TimeUnit.MILLISECONDS);
+        input.builder().graphQLContext(builder -> builder.of(Deadline.class, deadline));
+    }
+
+    public GraphqlErrorException checkRemaining(Deadline deadline, String methodName) {
+        if (deadline == null || deadline.timeRemaining(TimeUnit.MILLISECONDS) >= graphQlServersByMethods.deadline().floor()) {
+            return null;
+        }
+        return GraphqlErrorException.newErrorException()
+                .message("Недостаточно времени для вызова метода '%s'".formatted(methodName))
+                .extensions(Map.of("code", "DEADLINE_EXCEEDED"))
+                .build();
+    }
+
+    public static Deadline from(GraphQLContext graphQlContext) {
+        return graphQlContext.get(Deadline.class);
+    }
+
+    private static Long parseBudget(String header) {
+        try {
+            return Math.max(0, Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package ru.craftysoft.platform.gateway.configuration;
 
 import graphql.GraphQL;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.introspection.IntrospectionQuery;
 import graphql.language.*;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.idl.FieldWiringEnvironment;
 import graphql.schema.idl.SchemaGenerator;
 import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
 import graphql.schema.idl.TypeRuntimeWiring;
+import graphql.schema.idl.WiringFactory;
 import graphql.validation.constraints.standard.SizeConstraint;
 import graphql.validation.rules.OnValidationErrorStrategy;
 import graphql.validation.rules.ValidationRules;
@@ -15,13 +21,15 @@ import graphql.validation.schemawiring.ValidationSchemaWiring;
 import io.vertx.core.Future;
 import io.vertx.ext.web.handler.graphql.schema.VertxDataFetcher;
 import lombok.NoArgsConstructor;
-import ru.craftysoft.platform.gateway.configuration.instrumentation.LoggingInstrumentation;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.DirectResponseInstrumentation;
+import ru.craftysoft.platform.gateway.resolver.DynamicMessageDataFetcher;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static graphql.scalars.ExtendedScalars.*;
 import static graphql.schema.idl.RuntimeWiring.newRuntimeWiring;
@@ -30,16 +38,17 @@ import static lombok.AccessLevel.PRIVATE;
 @NoArgsConstructor(access = PRIVATE)
 public class GraphQlFactory {
 
-    private static final LoggingInstrumentation loggingInstrumentation = new LoggingInstrumentation();
+    private static final List<Instrumentation> defaultInstrumentations = List.of(
+            new DirectResponseInstrumentation()
+    );
 
     private static final SchemaParser schemaParser = new SchemaParser();
 
-    public static <T> GraphQL graphQlFromPaths(Function<DataFetchingEnvironment, Future<T>> dataFetcher, Collection<String> paths) {
-        var schemas = parse(paths);
-        return graphQlFromContracts(dataFetcher, schemas);
-    }
-
-    public static <T> GraphQL graphQlFromContracts(Function<DataFetchingEnvironment, Future<T>> dataFetcher, Collection<String> schemas) {
+    public static <T> GraphQL graphQlFromContracts(Function<DataFetchingEnvironment, Future<T>> dataFetcher,
+                                                   DataFetcher<?> subscriptionDataFetcher,
+                                                   Map<FieldCoordinates, DataFetcher<?>> additionalDataFetchers,
+                                                   Collection<String> schemas,
+                                                   List<Instrumentation> instrumentations) {
         var typeRegistry = mergeTypeDefinitionRegistry(schemas);
         var validationRules = ValidationRules.newValidationRules()
                 .onValidationErrorStrategy(OnValidationErrorStrategy.RETURN_NULL)
@@ -47,24 +56,44 @@ public class GraphQlFactory {
                 .build();
         var queries = resolveMethods(typeRegistry, "Query");
         var mutations = resolveMethods(typeRegistry, "Mutation");
-        var runtimeWiring = newRuntimeWiring()
+        var subscriptions = resolveMethods(typeRegistry, "Subscription");
+        var runtimeWiringBuilder = newRuntimeWiring()
                 .directiveWiring(new ValidationSchemaWiring(validationRules))
                 .scalar(GraphQLLong)
                 .scalar(DateTime)
                 .scalar(Date)
+                .wiringFactory(new WiringFactory() {
+                    @Override
+                    public DataFetcher getDefaultDataFetcher(FieldWiringEnvironment environment) {
+                        return new DynamicMessageDataFetcher(environment.getFieldDefinition().getName());
+                    }
+                })
                 .type("Query", builder -> resolveBuilder(queries, dataFetcher, builder))
                 .type("Mutation", builder -> resolveBuilder(mutations, dataFetcher, builder))
-                .build();
+                .type("Subscription", builder -> builder.dataFetchers(subscriptions.stream()
+                        .collect(Collectors.toMap(name -> name, name -> subscriptionDataFetcher))));
+        additionalDataFetchers.entrySet().stream()
+                .collect(Collectors.groupingBy(entry -> entry.getKey().getTypeName()))
+                .forEach((typeName, entries) -> runtimeWiringBuilder.type(typeName, builder -> {
+                    entries.forEach(entry -> builder.dataFetcher(entry.getKey().getFieldName(), entry.getValue()));
+                    return builder;
+                }));
+        var runtimeWiring = runtimeWiringBuilder.build();
         var graphQLSchema = new SchemaGenerator().makeExecutableSchema(typeRegistry, runtimeWiring);
-        return GraphQL.newGraphQL(graphQLSchema)
-                .instrumentation(loggingInstrumentation)
+        var instrumentation = new ChainedInstrumentation(Stream.concat(instrumentations.stream(), defaultInstrumentations.stream()).toList());
+        var graphQl = GraphQL.newGraphQL(graphQLSchema)
+                .instrumentation(instrumentation)
+                .preparsedDocumentProvider(new CachingPreparsedDocumentProvider())
+                .queryExecutionStrategy(new IntrospectionCachingExecutionStrategy())
                 .build();
+        graphQl.execute(IntrospectionQuery.INTROSPECTION_QUERY);
+        return graphQl;
     }
 
     public static List<String> parse(Collection<String> paths) {
         return paths.stream()
                 .map(path -> "/graphql/" + path)
-                .map(GraphQlConfiguration.class::getResourceAsStream)
+                .map(GraphQlFactory.class::getResourceAsStream)
                 .map(Objects::requireNonNull)
                 .map(inputStream -> {
                     try {
@@ -91,6 +120,10 @@ public class GraphQlFactory {
         var mutationFieldDefinitions = new ArrayList<FieldDefinition>();
         var mutationAdditionalData = new HashMap<String, String>();
 
+        var subscriptionDirectives = new ArrayList<Directive>();
+        var subscriptionFieldDefinitions = new ArrayList<FieldDefinition>();
+        var subscriptionAdditionalData = new HashMap<String, String>();
+
         for (var schema : schemas) {
             var currentTypeDefinitionRegistry = schemaParser.parse(schema);
             currentTypeDefinitionRegistry.schemaDefinition()
@@ -113,12 +146,13 @@ public class GraphQlFactory {
             var currentTypes = currentTypeDefinitionRegistry.types();
             for (var currentType : currentTypes.values()) {
                 var currentTypeName = currentType.getName();
-                if ("Query".equals(currentTypeName) || "Mutation".equals(currentTypeName)) {
+                if ("Query".equals(currentTypeName) || "Mutation".equals(currentTypeName) || "Subscription".equals(currentTypeName)) {
                     var currentObjectTypeDefinition = (ObjectTypeDefinition) currentType;
                     currentTypeDefinitionRegistry.remove(currentObjectTypeDefinition);
                     switch (currentTypeName) {
                         case "Query" -> fillObjectTypeDefinitionParameters(queryDirectives, queryFieldDefinitions, queryAdditionalData, currentObjectTypeDefinition);
                         case "Mutation" -> fillObjectTypeDefinitionParameters(mutationDirectives, mutationFieldDefinitions, mutationAdditionalData, currentObjectTypeDefinition);
+                        case "Subscription" -> fillObjectTypeDefinitionParameters(subscriptionDirectives, subscriptionFieldDefinitions, subscriptionAdditionalData, currentObjectTypeDefinition);
                     }
                 }
             }
@@ -137,6 +171,12 @@ public class GraphQlFactory {
             var operationTypeDefinition = buildOperationTypeDefinition("mutation", "Mutation");
             operationTypeDefinitions.add(operationTypeDefinition);
         }
+        if (!subscriptionFieldDefinitions.isEmpty()) {
+            var subscription = buildObjectTypeDefinition("Subscription", subscriptionDirectives, subscriptionFieldDefinitions, subscriptionAdditionalData);
+            typeRegistry.add(subscription);
+            var operationTypeDefinition = buildOperationTypeDefinition("subscription", "Subscription");
+            operationTypeDefinitions.add(operationTypeDefinition);
+        }
         var schemaDefinition = SchemaDefinition.newSchemaDefinition()
                 .operationTypeDefinitions(operationTypeDefinitions)
                 .build();
@@ -2,14 +2,28 @@ package ru.craftysoft.platform.gateway.configuration;
 
 import io.grpc.Channel;
 import io.grpc.ClientInterceptors;
-import io.grpc.ManagedChannelBuilder;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.NettyChannelBuilder;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.vertx.core.Vertx;
 import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
 import ru.craftysoft.platform.gateway.interceptor.GrpcClientInterceptor;
+import ru.craftysoft.platform.gateway.service.client.grpc.BalancedChannel;
+import ru.craftysoft.platform.gateway.service.client.grpc.ConcurrencyLimiter;
 import ru.craftysoft.platform.gateway.service.client.grpc.DynamicGrpcClient;
 import ru.craftysoft.platform.gateway.service.client.grpc.ReflectionGrpcClient;
+import ru.craftysoft.platform.gateway.service.client.grpc.RetryBudget;
+import ru.craftysoft.platform.gateway.service.client.grpc.compression.CompressionStrategy;
+import ru.craftysoft.platform.gateway.service.logging.PayloadLogger;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
 
 import javax.enterprise.context.ApplicationScoped;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -17,33 +31,106 @@ import java.util.stream.Collectors;
 public class GrpcClientConfiguration {
 
     @ApplicationScoped
-    public Map<String, DynamicGrpcClient> dynamicGrpcClients(GrpcClientConfigurationMap configurationMap) {
-        return clientMap(
-                configurationMap,
-                DynamicGrpcClient.class,
-                (configuration, channel) -> new DynamicGrpcClient(channel, configuration.dynamicClientDeadline())
-        );
+    public Map<String, BalancedChannel> balancedChannels(GrpcClientConfigurationMap configurationMap, Vertx vertx) {
+        var channelsByTargets = new HashMap<String, ManagedChannel>();
+        return configurationMap.services().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    var channels = targets(entry.getKey(), entry.getValue()).stream()
+                            .map(target -> channelsByTargets.computeIfAbsent(target, t -> channel(t, configurationMap, vertx)))
+                            .toList();
+                    return new BalancedChannel(channels, entry.getValue().outlierDetection());
+                }));
+    }
+
+    @ApplicationScoped
+    public Map<String, ConcurrencyLimiter> concurrencyLimiters(GrpcClientConfigurationMap configurationMap, GatewayMetrics metrics) {
+        return configurationMap.services().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    var limiter = new ConcurrencyLimiter(entry.getKey(), entry.getValue().concurrencyLimit());
+                    metrics.bindConcurrencyLimiter(entry.getKey(), limiter);
+                    return limiter;
+                }));
     }
 
     @ApplicationScoped
-    public Map<String, ReflectionGrpcClient> reflectionClients(GrpcClientConfigurationMap configurationMap) {
+    public Map<String, DynamicGrpcClient> dynamicGrpcClients(GrpcClientConfigurationMap configurationMap,
+                                                             Map<String, BalancedChannel> balancedChannels,
+                                                             Map<String, ConcurrencyLimiter> concurrencyLimiters,
+                                                             GatewayMetrics metrics,
+                                                             PayloadLogger payloadLogger) {
+        return configurationMap.services().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    var configuration = entry.getValue();
+                    var compressionStrategy = new CompressionStrategy(configuration.compression());
+                    var channel = ClientInterceptors.intercept(
+                            balancedChannels.get(entry.getKey()),
+                            new GrpcClientInterceptor(DynamicGrpcClient.class, payloadLogger),
+                            compressionStrategy.interceptor()
+                    );
+                    return new DynamicGrpcClient(
+                            channel,
+                            configuration.dynamicClientDeadline(),
+                            compressionStrategy,
+                            new RetryBudget(configuration.retry().budgetRatio(), configuration.retry().budgetMaxTokens()),
+                            configuration.retry(),
+                            concurrencyLimiters.get(entry.getKey()),
+                            metrics
+                    );
+                }));
+    }
+
+    @ApplicationScoped
+    public Map<String, ReflectionGrpcClient> reflectionClients(GrpcClientConfigurationMap configurationMap,
+                                                               Map<String, BalancedChannel> balancedChannels,
+                                                               PayloadLogger payloadLogger) {
         return clientMap(
                 configurationMap,
+                balancedChannels,
+                payloadLogger,
                 ReflectionGrpcClient.class,
                 (configuration, channel) -> new ReflectionGrpcClient(channel, configuration.reflectionClientDeadline())
         );
     }
 
     private <T> Map<String, T> clientMap(GrpcClientConfigurationMap configurationMap,
+                                         Map<String, BalancedChannel> balancedChannels,
+                                         PayloadLogger payloadLogger,
                                          Class<T> clientClass,
                                          BiFunction<GrpcClientConfigurationMap.ServerConfiguration, Channel, T> clientBuilder) {
         return configurationMap.services().entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
-                    var channel = ManagedChannelBuilder.forTarget(entry.getValue().host() + ":" + entry.getValue().port())
-                            .usePlaintext()
-                            .build();
-                    return clientBuilder.apply(entry.getValue(), ClientInterceptors.intercept(channel, new GrpcClientInterceptor(clientClass)));
+                    var channel = balancedChannels.get(entry.getKey());
+                    return clientBuilder.apply(entry.getValue(), ClientInterceptors.intercept(channel, new GrpcClientInterceptor(clientClass, payloadLogger)));
                 }));
     }
 
+    private static ManagedChannel channel(String target, GrpcClientConfigurationMap configurationMap, Vertx vertx) {
+        var builder = NettyChannelBuilder.forTarget(target)
+                .usePlaintext()
+                .directExecutor()
+                .keepAliveTime(configurationMap.keepAliveTime(), TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(configurationMap.keepAliveTimeout(), TimeUnit.MILLISECONDS)
+                .keepAliveWithoutCalls(configurationMap.keepAliveWithoutCalls())
+                .compressorRegistry(CompressionStrategy.compressorRegistry())
+                .decompressorRegistry(CompressionStrategy.decompressorRegistry());
+        if (!vertx.isNativeTransportEnabled()) {
+            builder.eventLoopGroup(vertx.nettyEventLoopGroup())
+                    .channelType(NioSocketChannel.class);
+        } else if (Epoll.isAvailable()) {
+            builder.eventLoopGroup(vertx.nettyEventLoopGroup())
+                    .channelType(EpollSocketChannel.class);
+        }
+        var channel = builder.build();
+        channel.getState(true);
+        return channel;
+    }
+
+    private static List<String> targets(String serverName, GrpcClientConfigurationMap.ServerConfiguration configuration) {
+        return configuration.endpoints()
+                .or(() -> configuration.host()
+                        .flatMap(host -> configuration.port().map(port -> List.of(host + ":" + port))))
+                .filter(endpoints -> !endpoints.isEmpty())
+                .orElseThrow(() -> new IllegalArgumentException("Не заданы адреса сервиса '%s'".formatted(serverName)));
+    }
+
 }
@@ -0,0 +1,55 @@
+package ru.craftysoft.platform.gateway.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionResult;
+import graphql.execution.AsyncExecutionStrategy;
+import graphql.execution.ExecutionContext;
+import graphql.execution.ExecutionStrategyParameters;
+import graphql.execution.MergedField;
+import graphql.execution.NonNullableFieldWasNullException;
+import graphql.language.Document;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class IntrospectionCachingExecutionStrategy extends AsyncExecutionStrategy {
+
+    private static final int MAXIMUM_SIZE = 16;
+
+    private final Cache<Document, Map<String, CompletableFuture<ExecutionResult>>> results = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+
+    @Override
+    public CompletableFuture<ExecutionResult> execute(ExecutionContext executionContext,
+                                                      ExecutionStrategyParameters parameters) throws NonNullableFieldWasNullException {
+        var executionInput = executionContext.getExecutionInput();
+        if (!isIntrospection(parameters) || !executionInput.getVariables().isEmpty()) {
+            return super.execute(executionContext, parameters);
+        }
+        var resultsByOperations = results.get(executionContext.getDocument(), document -> new ConcurrentHashMap<>());
+        var operationName = Objects.toString(executionInput.getOperationName(), "");
+        var cached = resultsByOperations.get(operationName);
+        if (cached != null) {
+            return cached;
+        }
+        var result = super.execute(executionContext, parameters);
+        result.thenAccept(executionResult -> {
+            if (executionResult.getErrors().isEmpty()) {
+                resultsByOperations.putIfAbsent(operationName, CompletableFuture.completedFuture(executionResult));
+            }
+        });
+        return result;
+    }
+
+    private static boolean isIntrospection(ExecutionStrategyParameters parameters) {
+        var fields = parameters.getFields();
+        return !fields.isEmpty() && fields.getSubFieldsList().stream()
+                .map(MergedField::getName)
+                .allMatch(name -> name.startsWith("__"));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.craftysoft.platform.gateway.configuration;
+
+import graphql.GraphQL;
+import graphql.execution.instrumentation.Instrumentation;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.graphql.ExecutionInputBuilderWithContext;
+import io.vertx.ext.web.handler.graphql.GraphQLHandler;
+import io.vertx.ext.web.handler.graphql.GraphQLHandlerOptions;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.ExecutionTimings;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.LoggingInstrumentation;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.MetricsInstrumentation;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.TimingInstrumentation;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+import ru.craftysoft.platform.gateway.resolver.JoinResolver;
+import ru.craftysoft.platform.gateway.resolver.MainResolver;
+import ru.craftysoft.platform.gateway.service.logging.PayloadLogger;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ApplicationScoped
+public class SchemaRegistry {
+
+    private final MainResolver mainResolver;
+    private final JoinResolver joinResolver;
+    private final ExecutionDeadlineProvider executionDeadlineProvider;
+    private final List<Instrumentation> instrumentations;
+    private final GraphQlServicesByMethodsMap.TimingConfiguration timingConfiguration;
+    private final GraphQLHandlerOptions graphQlHandlerOptions = new GraphQLHandlerOptions()
+            .setRequestMultipartEnabled(true)
+            .setRequestBatchingEnabled(true);
+
+    private volatile SchemaSnapshot current;
+
+    public SchemaRegistry(MainResolver mainResolver,
+                          JoinResolver joinResolver,
+                          ExecutionDeadlineProvider executionDeadlineProvider,
+                          GatewayMetrics metrics,
+                          PayloadLogger payloadLogger,
+                          GraphQlServicesByMethodsMap graphQlServersByMethods) {
+        this.mainResolver = mainResolver;
+        this.joinResolver = joinResolver;
+        this.executionDeadlineProvider = executionDeadlineProvider;
+        this.timingConfiguration = graphQlServersByMethods.timing();
+        this.instrumentations = List.of(
+                new MetricsInstrumentation(metrics),
+                new LoggingInstrumentation(payloadLogger),
+                new TimingInstrumentation(timingConfiguration)
+        );
+        var contracts = new LinkedHashMap<String, String>();
+        graphQlServersByMethods.contractsByServices()
+                .forEach((serviceName, path) -> contracts.put(serviceName, GraphQlFactory.parse(List.of(path)).get(0)));
+        this.current = build(1, contracts);
+    }
+
+    public SchemaSnapshot current() {
+        return current;
+    }
+
+    public synchronized SchemaSnapshot refresh(String serviceName, String contract) {
+        var previous = current;
+        var contracts = new LinkedHashMap<>(previous.contracts());
+        contracts.put(serviceName, contract);
+        var snapshot = build(previous.version() + 1, contracts);
+        current = snapshot;
+        return snapshot;
+    }
+
+    private SchemaSnapshot build(long version, Map<String, String> contracts) {
+        var graphQl = GraphQlFactory.graphQlFromContracts(mainResolver::resolve, mainResolver::subscribe, joinResolver.dataFetchers(), contracts.values(), instrumentations);
+        var handler = GraphQLHandler.create(graphQl, graphQlHandlerOptions)
+                .dataLoaderRegistry(rc -> joinResolver.dataLoaderRegistry())
+                .beforeExecute(this::beforeExecute);
+        return new SchemaSnapshot(version, Collections.unmodifiableMap(contracts), graphQl, handler);
+    }
+
+    private void beforeExecute(ExecutionInputBuilderWithContext<RoutingContext> input) {
+        executionDeadlineProvider.beforeExecute(input);
+        var exposed = timingConfiguration.enabled() && input.context().request().getHeader(timingConfiguration.header()) != null;
+        if (exposed || timingConfiguration.slowQueryThreshold().isPresent()) {
+            input.builder().graphQLContext(builder -> builder.of(ExecutionTimings.class, new ExecutionTimings(exposed)));
+        }
+    }
+
+    public record SchemaSnapshot(long version, Map<String, String> contracts, GraphQL graphQl, GraphQLHandler handler) {
+    }
+}
@@ -0,0 +1,32 @@
+package ru.craftysoft.platform.gateway.configuration.instrumentation;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class DirectResponseInstrumentation extends SimpleInstrumentation {
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters) {
+        DirectResponses directResponses = parameters.getGraphQLContext().get(DirectResponses.class);
+        if (directResponses == null || directResponses.valuesByResultKeys().isEmpty() || !(executionResult.getData() instanceof Map<?, ?> data)) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        var resolvedData = new LinkedHashMap<Object, Object>(data);
+        directResponses.valuesByResultKeys().forEach((resultKey, value) -> {
+            if (resolvedData.containsKey(resultKey)) {
+                resolvedData.put(resultKey, value);
+            }
+        });
+        return CompletableFuture.completedFuture(ExecutionResultImpl.newExecutionResult()
+                .from(executionResult)
+                .data(resolvedData)
+                .build());
+    }
+
+}
@@ -0,0 +1,25 @@
+package ru.craftysoft.platform.gateway.configuration.instrumentation;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+import graphql.GraphQLContext;
+import ru.craftysoft.platform.gateway.builder.RawJson;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DirectResponses {
+
+    private final Map<String, RawValue> valuesByResultKeys = new ConcurrentHashMap<>();
+
+    public static DirectResponses from(GraphQLContext graphQlContext) {
+        return graphQlContext.computeIfAbsent(DirectResponses.class, key -> new DirectResponses());
+    }
+
+    public void put(String resultKey, RawJson json) {
+        valuesByResultKeys.put(resultKey, new RawValue(json));
+    }
+
+    Map<String, RawValue> valuesByResultKeys() {
+        return valuesByResultKeys;
+    }
+}
@@ -0,0 +1,103 @@
+package ru.craftysoft.platform.gateway.configuration.instrumentation;
+
+import graphql.GraphQLContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class ExecutionTimings {
+
+    private final long startedAt = System.nanoTime();
+    private final boolean exposed;
+    private final Map<String, FieldTiming> fields = new ConcurrentHashMap<>();
+    private volatile long parseNanos;
+    private volatile long validationNanos;
+
+    public ExecutionTimings(boolean exposed) {
+        this.exposed = exposed;
+    }
+
+    public static ExecutionTimings from(GraphQLContext graphQlContext) {
+        return graphQlContext.get(ExecutionTimings.class);
+    }
+
+    public static FieldTiming field(GraphQLContext graphQlContext, String name) {
+        var timings = from(graphQlContext);
+        return timings != null ? timings.fields.computeIfAbsent(name, key -> new FieldTiming()) : null;
+    }
+
+    boolean exposed() {
+        return exposed;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startedAt;
+    }
+
+    void parsed(long nanos) {
+        parseNanos = nanos;
+    }
+
+    void validated(long nanos) {
+        validationNanos = nanos;
+    }
+
+    Map<String, Object> toMap(long totalNanos) {
+        var result = new LinkedHashMap<String, Object>();
+        result.put("totalMs", millis(totalNanos));
+        result.put("parseMs", millis(parseNanos));
+        result.put("validateMs", millis(validationNanos));
+        var fieldTimings = new LinkedHashMap<String, Object>();
+        fields.forEach((name, timing) -> fieldTimings.put(name, timing.toMap()));
+        result.put("fields", fieldTimings);
+        return result;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public static class FieldTiming {
+
+        private long calls;
+        private long reflectionNanos;
+        private long buildNanos;
+        private long backendNanos;
+        private long convertNanos;
+        private long requestBytes;
+        private long responseBytes;
+
+        public synchronized void reflection(long nanos) {
+            calls++;
+            reflectionNanos += nanos;
+        }
+
+        public synchronized void build(long nanos, int bytes) {
+            buildNanos += nanos;
+            requestBytes += bytes;
+        }
+
+        public synchronized void backend(long nanos, int bytes) {
+            backendNanos += nanos;
+            responseBytes += bytes;
+        }
+
+        public synchronized void convert(long nanos) {
+            convertNanos += nanos;
+        }
+
+        private synchronized Map<String, Object> toMap() {
+            var result = new LinkedHashMap<String, Object>();
+            result.put("calls", calls);
+            result.put("reflectionMs", millis(reflectionNanos));
+            result.put("buildMs", millis(buildNanos));
+            result.put("backendMs", millis(backendNanos));
+            result.put("convertMs", millis(convertNanos));
+            result.put("requestBytes", requestBytes);
+            result.put("responseBytes", responseBytes);
+            return result;
+        }
+    }
+}
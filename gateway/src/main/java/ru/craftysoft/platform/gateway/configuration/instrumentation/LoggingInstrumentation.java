@@ -4,33 +4,44 @@ import graphql.ExecutionResult;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.SimpleInstrumentation;
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.craftysoft.platform.gateway.service.logging.PayloadLogger;
 
+import java.util.Map;
+
+@RequiredArgsConstructor
 public class LoggingInstrumentation extends SimpleInstrumentation {
 
     private static final Logger requestLogger = LoggerFactory.getLogger("ru.craftysoft.platform.gateway.server.request");
     private static final Logger responseLogger = LoggerFactory.getLogger("ru.craftysoft.platform.gateway.server.response");
 
+    private final PayloadLogger payloadLogger;
+
     @Override
     public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters) {
         var operation = parameters.getOperation();
-        if (!"IntrospectionQuery".equals(operation)) {
+        var sampled = !"IntrospectionQuery".equals(operation)
+                && (requestLogger.isDebugEnabled() || responseLogger.isDebugEnabled())
+                && payloadLogger.sampled(operation);
+        if (sampled) {
             var variables = parameters.getVariables();
             if (requestLogger.isTraceEnabled()) {
-                var query = parameters.getQuery();
-                requestLogger.trace("""
-                        operation={}
-                        query={}
-                        variables={}""", operation, query, variables);
-            } else {
-                requestLogger.debug("""
-                        operation={}
-                        variables={}""", operation, variables);
+                payloadLogger.trace(requestLogger, "operation={}\n{}", operation, new QueryPayload(parameters.getQuery(), variables));
+            } else if (requestLogger.isDebugEnabled()) {
+                payloadLogger.debug(requestLogger, "operation={}\nvariables={}", operation, variables);
             }
         }
 
-        return new LoggingSimpleInstrumentationContext(operation, responseLogger);
+        return new LoggingSimpleInstrumentationContext(operation, sampled, responseLogger, payloadLogger);
+    }
+
+    private record QueryPayload(String query, Map<String, Object> variables) {
+        @Override
+        public String toString() {
+            return "query=" + query + "\nvariables=" + variables;
+        }
     }
 
 }
@@ -2,33 +2,27 @@ package ru.craftysoft.platform.gateway.configuration.instrumentation;
 
 import graphql.ExecutionResult;
 import graphql.execution.instrumentation.SimpleInstrumentationContext;
-import io.vertx.core.json.JsonObject;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
-
-import static java.util.Optional.ofNullable;
+import ru.craftysoft.platform.gateway.service.logging.PayloadLogger;
 
 @RequiredArgsConstructor
 public class LoggingSimpleInstrumentationContext extends SimpleInstrumentationContext<ExecutionResult> {
 
     private final String operation;
+    private final boolean sampled;
     private final Logger responseLogger;
+    private final PayloadLogger payloadLogger;
 
     @Override
     public void onCompleted(ExecutionResult executionResult, Throwable t) {
         if (t != null) {
             responseLogger.error("error", t);
-        } else {
-            if (!"IntrospectionQuery".equals(operation)) {
-                if (responseLogger.isTraceEnabled()) {
-                    var result = ofNullable(executionResult.toSpecification())
-                            .map(JsonObject::mapFrom)
-                            .map(JsonObject::toString)
-                            .orElse(null);
-                    responseLogger.trace("result={}", result);
-                } else {
-                    responseLogger.debug("result");
-                }
+        } else if (sampled) {
+            if (responseLogger.isTraceEnabled()) {
+                payloadLogger.trace(responseLogger, "operation={}\nresult={}", operation, executionResult);
+            } else {
+                responseLogger.debug("operation={} result", operation);
             }
         }
     }
@@ -0,0 +1,44 @@
+package ru.craftysoft.platform.gateway.configuration.instrumentation;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+public class MetricsInstrumentation extends SimpleInstrumentation {
+
+    private final GatewayMetrics metrics;
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters) {
+        return timed(metrics.executionTimer());
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters) {
+        return timed(metrics.parseTimer());
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters) {
+        return timed(metrics.validationTimer());
+    }
+
+    private static <T> InstrumentationContext<T> timed(Timer timer) {
+        var startedAt = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) ->
+                timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+    }
+
+}
@@ -0,0 +1,83 @@
+package ru.craftysoft.platform.gateway.configuration.instrumentation;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+import io.vertx.core.json.JsonObject;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static java.util.Optional.ofNullable;
+
+@RequiredArgsConstructor
+public class TimingInstrumentation extends SimpleInstrumentation {
+
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("ru.craftysoft.platform.gateway.server.slow-query");
+
+    private final GraphQlServicesByMethodsMap.TimingConfiguration configuration;
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters) {
+        return timed(ExecutionTimings.from(parameters.getGraphQLContext()), ExecutionTimings::parsed);
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters) {
+        return timed(ExecutionTimings.from(parameters.getGraphQLContext()), ExecutionTimings::validated);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, InstrumentationExecutionParameters parameters) {
+        var timings = ExecutionTimings.from(parameters.getGraphQLContext());
+        if (timings == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        var totalNanos = timings.elapsedNanos();
+        var threshold = configuration.slowQueryThreshold().orElse(-1L);
+        var slow = threshold >= 0 && totalNanos >= TimeUnit.MILLISECONDS.toNanos(threshold);
+        if (!slow && !timings.exposed()) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        var timing = timings.toMap(totalNanos);
+        if (slow && slowQueryLogger.isWarnEnabled()) {
+            var entry = new JsonObject()
+                    .put("operation", parameters.getOperation())
+                    .put("query", parameters.getQuery())
+                    .put("errors", executionResult.getErrors().size())
+                    .put("timing", timing);
+            slowQueryLogger.warn("{}", entry.encode());
+        }
+        if (!timings.exposed()) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        var extensions = new LinkedHashMap<>(ofNullable(executionResult.getExtensions()).orElseGet(LinkedHashMap::new));
+        extensions.put("timing", timing);
+        return CompletableFuture.completedFuture(ExecutionResultImpl.newExecutionResult()
+                .from(executionResult)
+                .extensions(extensions)
+                .build());
+    }
+
+    private static <T> InstrumentationContext<T> timed(ExecutionTimings timings, BiConsumer<ExecutionTimings, Long> consumer) {
+        if (timings == null) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        var startedAt = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> consumer.accept(timings, System.nanoTime() - startedAt));
+    }
+
+}
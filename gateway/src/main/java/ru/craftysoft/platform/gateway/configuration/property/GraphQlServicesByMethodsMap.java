@@ -1,8 +1,11 @@
 package ru.craftysoft.platform.gateway.configuration.property;
 
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @ConfigMapping(prefix = "graphql")
 public interface GraphQlServicesByMethodsMap {
@@ -11,4 +14,69 @@ public interface GraphQlServicesByMethodsMap {
 
     Map<String, String> contractsByServices();
 
+    Optional<Set<String>> directResponseMethods();
+
+    Map<String, JoinConfiguration> joins();
+
+    ResponseCacheConfiguration responseCache();
+
+    HedgingConfiguration hedging();
+
+    DeadlineConfiguration deadline();
+
+    TimingConfiguration timing();
+
+    interface JoinConfiguration {
+        String method();
+
+        String argument();
+
+        String sourceField();
+
+        @WithDefault("8")
+        int maxConcurrency();
+    }
+
+    interface HedgingConfiguration {
+        Optional<Set<String>> methods();
+
+        Optional<Set<String>> safeMutations();
+    }
+
+    interface DeadlineConfiguration {
+        @WithDefault("X-Request-Timeout")
+        String header();
+
+        @WithDefault("5000")
+        long defaultBudget();
+
+        @WithDefault("30000")
+        long maxBudget();
+
+        @WithDefault("10")
+        long floor();
+
+        Map<String, Long> budgetsByOperations();
+    }
+
+    interface TimingConfiguration {
+        @WithDefault("false")
+        boolean enabled();
+
+        @WithDefault("X-GraphQL-Timing")
+        String header();
+
+        Optional<Long> slowQueryThreshold();
+    }
+
+    interface ResponseCacheConfiguration {
+        @WithDefault("67108864")
+        long capacity();
+
+        @WithDefault("4096")
+        int blockSize();
+
+        Map<String, Long> ttlByMethods();
+    }
+
 }
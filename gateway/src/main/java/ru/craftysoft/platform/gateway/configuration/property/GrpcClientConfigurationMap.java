@@ -1,22 +1,112 @@
 package ru.craftysoft.platform.gateway.configuration.property;
 
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import ru.craftysoft.platform.gateway.service.client.grpc.compression.CompressionPolicy;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @ConfigMapping(prefix = "grpc")
 public interface GrpcClientConfigurationMap {
     Map<String, ServerConfiguration> services();
 
+    Optional<String> reflectionSnapshotDir();
+
+    @WithDefault("300000")
+    long keepAliveTime();
+
+    @WithDefault("10000")
+    long keepAliveTimeout();
+
+    @WithDefault("false")
+    boolean keepAliveWithoutCalls();
+
     interface ServerConfiguration {
         String serviceName();
 
-        String host();
+        Optional<String> host();
 
-        int port();
+        Optional<Integer> port();
+
+        Optional<List<String>> endpoints();
 
         long reflectionClientDeadline();
 
         long dynamicClientDeadline();
+
+        @WithDefault("60000")
+        long reflectionRefreshInterval();
+
+        OutlierDetectionConfiguration outlierDetection();
+
+        CompressionConfiguration compression();
+
+        RetryConfiguration retry();
+
+        ConcurrencyLimitConfiguration concurrencyLimit();
+    }
+
+    interface OutlierDetectionConfiguration {
+        @WithDefault("0.5")
+        double errorRate();
+
+        @WithDefault("3.0")
+        double latencyFactor();
+
+        @WithDefault("30000")
+        long ejectionTime();
+
+        @WithDefault("50")
+        int maxEjectionPercent();
+    }
+
+    interface RetryConfiguration {
+        @WithDefault("2")
+        int maxRetries();
+
+        @WithDefault("0.1")
+        double budgetRatio();
+
+        @WithDefault("10")
+        int budgetMaxTokens();
+
+        @WithDefault("0.95")
+        double hedgePercentile();
+
+        @WithDefault("5")
+        long hedgeMinDelay();
+    }
+
+    interface ConcurrencyLimitConfiguration {
+        @WithDefault("20")
+        int initialLimit();
+
+        @WithDefault("4")
+        int minLimit();
+
+        @WithDefault("500")
+        int maxLimit();
+
+        @WithDefault("1.5")
+        double tolerance();
+
+        @WithDefault("0.2")
+        double smoothing();
+    }
+
+    interface CompressionConfiguration {
+        @WithDefault("none")
+        CompressionPolicy policy();
+
+        @WithDefault("gzip")
+        CompressionPolicy adaptiveCodec();
+
+        @WithDefault("1024")
+        int threshold();
+
+        @WithDefault("1.5")
+        double minRatio();
     }
 }
@@ -0,0 +1,25 @@
+package ru.craftysoft.platform.gateway.configuration.property;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.util.Map;
+
+@ConfigMapping(prefix = "payload-logging")
+public interface PayloadLoggingConfigurationMap {
+
+    @WithDefault("8192")
+    int queueCapacity();
+
+    @WithDefault("16777216")
+    long queueCapacityBytes();
+
+    @WithDefault("1.0")
+    double sampleRate();
+
+    Map<String, Double> sampleRatesByOperations();
+
+    @WithDefault("4096")
+    int maxPayloadSize();
+
+}
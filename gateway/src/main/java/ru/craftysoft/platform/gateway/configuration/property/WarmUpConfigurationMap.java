@@ -0,0 +1,29 @@
+package ru.craftysoft.platform.gateway.configuration.property;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.util.List;
+import java.util.Optional;
+
+@ConfigMapping(prefix = "warm-up")
+public interface WarmUpConfigurationMap {
+
+    @WithDefault("true")
+    boolean enabled();
+
+    @WithDefault("30000")
+    long budget();
+
+    @WithDefault("500")
+    long retryInterval();
+
+    @WithDefault("10000")
+    long maxRetryInterval();
+
+    @WithDefault("1")
+    int iterations();
+
+    Optional<List<String>> queries();
+
+}
@@ -0,0 +1,258 @@
+package ru.craftysoft.platform.gateway.controller;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ru.craftysoft.platform.gateway.configuration.SchemaRegistry;
+import ru.craftysoft.platform.gateway.resolver.JoinResolver;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Optional.ofNullable;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+public class GraphQlWebSocketHandler {
+
+    private static final String SUB_PROTOCOL = "graphql-transport-ws";
+    private static final long CONNECTION_INIT_TIMEOUT = 10_000;
+
+    private final SchemaRegistry schemaRegistry;
+    private final JoinResolver joinResolver;
+
+    public void handle(RoutingContext routingContext) {
+        routingContext.request().toWebSocket()
+                .onSuccess(webSocket -> {
+                    if (!SUB_PROTOCOL.equals(webSocket.subProtocol())) {
+                        webSocket.close((short) 4406, "Subprotocol not acceptable");
+                        return;
+                    }
+                    new Connection(webSocket, Vertx.currentContext()).start();
+                })
+                .onFailure(routingContext::fail);
+    }
+
+    private class Connection {
+
+        private final ServerWebSocket webSocket;
+        private final Context context;
+        private final Map<String, Operation> operations = new HashMap<>();
+        private final Set<Operation> paused = new LinkedHashSet<>();
+        private boolean initialised;
+
+        private Connection(ServerWebSocket webSocket, Context context) {
+            this.webSocket = webSocket;
+            this.context = context;
+        }
+
+        private void start() {
+            webSocket.textMessageHandler(this::onMessage);
+            webSocket.drainHandler(v -> resume());
+            webSocket.closeHandler(v -> {
+                new ArrayList<>(operations.values()).forEach(Operation::cancel);
+                operations.clear();
+            });
+            context.owner().setTimer(CONNECTION_INIT_TIMEOUT, timerId -> {
+                if (!initialised) {
+                    webSocket.close((short) 4408, "Connection initialisation timeout");
+                }
+            });
+        }
+
+        private void onMessage(String text) {
+            JsonObject message;
+            try {
+                message = new JsonObject(text);
+            } catch (DecodeException e) {
+                webSocket.close((short) 4400, "Invalid message");
+                return;
+            }
+            switch (ofNullable(message.getString("type")).orElse("")) {
+                case "connection_init" -> {
+                    if (initialised) {
+                        webSocket.close((short) 4429, "Too many initialisation requests");
+                        return;
+                    }
+                    initialised = true;
+                    send(new JsonObject().put("type", "connection_ack"));
+                }
+                case "ping" -> send(new JsonObject().put("type", "pong"));
+                case "pong" -> {
+                }
+                case "subscribe" -> subscribe(message);
+                case "complete" -> ofNullable(operations.remove(message.getString("id"))).ifPresent(Operation::cancel);
+                default -> webSocket.close((short) 4400, "Unknown message type");
+            }
+        }
+
+        private void subscribe(JsonObject message) {
+            if (!initialised) {
+                webSocket.close((short) 4401, "Unauthorized");
+                return;
+            }
+            var id = message.getString("id");
+            var payload = message.getJsonObject("payload");
+            if (id == null || payload == null || payload.getString("query") == null) {
+                webSocket.close((short) 4400, "Invalid message");
+                return;
+            }
+            if (operations.containsKey(id)) {
+                webSocket.close((short) 4409, "Subscriber for " + id + " already exists");
+                return;
+            }
+            var operation = new Operation(id);
+            operations.put(id, operation);
+            var executionInput = ExecutionInput.newExecutionInput()
+                    .query(payload.getString("query"))
+                    .operationName(payload.getString("operationName"))
+                    .variables(ofNullable(payload.getJsonObject("variables")).map(JsonObject::getMap).orElse(Map.of()))
+                    .extensions(ofNullable(payload.getJsonObject("extensions")).map(JsonObject::getMap).orElse(Map.of()))
+                    .dataLoaderRegistry(joinResolver.dataLoaderRegistry())
+                    .build();
+            schemaRegistry.current().graphQl().executeAsync(executionInput)
+                    .whenComplete((result, throwable) -> context.runOnContext(v -> operation.onResult(result, throwable)));
+        }
+
+        private void resume() {
+            var resumed = new ArrayList<>(paused);
+            paused.clear();
+            resumed.forEach(Operation::requestNext);
+        }
+
+        private void send(JsonObject message) {
+            if (!webSocket.isClosed()) {
+                webSocket.writeTextMessage(message.encode());
+            }
+        }
+
+        private void sendNext(String id, ExecutionResult result) {
+            send(new JsonObject()
+                    .put("id", id)
+                    .put("type", "next")
+                    .put("payload", result.toSpecification()));
+        }
+
+        private void sendError(String id, List<Map<String, Object>> errors) {
+            send(new JsonObject()
+                    .put("id", id)
+                    .put("type", "error")
+                    .put("payload", new JsonArray(new ArrayList<>(errors))));
+        }
+
+        private void sendComplete(String id) {
+            send(new JsonObject()
+                    .put("id", id)
+                    .put("type", "complete"));
+        }
+
+        private class Operation implements Subscriber<ExecutionResult> {
+
+            private final String id;
+            private Subscription subscription;
+            private boolean cancelled;
+
+            private Operation(String id) {
+                this.id = id;
+            }
+
+            @SuppressWarnings("unchecked")
+            private void onResult(ExecutionResult result, Throwable throwable) {
+                if (cancelled) {
+                    return;
+                }
+                if (throwable != null) {
+                    operations.remove(id, this);
+                    sendError(id, List.of(Map.of("message", String.valueOf(throwable.getMessage()))));
+                    return;
+                }
+                if (result.getData() instanceof Publisher<?> publisher) {
+                    ((Publisher<ExecutionResult>) publisher).subscribe(this);
+                    return;
+                }
+                operations.remove(id, this);
+                if (result.getData() == null && !result.getErrors().isEmpty()) {
+                    sendError(id, result.getErrors().stream().map(GraphQLError::toSpecification).toList());
+                } else {
+                    sendNext(id, result);
+                    sendComplete(id);
+                }
+            }
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                context.runOnContext(v -> {
+                    this.subscription = subscription;
+                    if (cancelled) {
+                        subscription.cancel();
+                    } else {
+                        subscription.request(1);
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(ExecutionResult result) {
+                context.runOnContext(v -> {
+                    if (cancelled) {
+                        return;
+                    }
+                    sendNext(id, result);
+                    if (webSocket.writeQueueFull()) {
+                        paused.add(this);
+                    } else {
+                        requestNext();
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                context.runOnContext(v -> {
+                    if (operations.remove(id, this)) {
+                        sendError(id, List.of(Map.of("message", String.valueOf(throwable.getMessage()))));
+                    }
+                });
+            }
+
+            @Override
+            public void onComplete() {
+                context.runOnContext(v -> {
+                    if (operations.remove(id, this)) {
+                        sendComplete(id);
+                    }
+                });
+            }
+
+            private void requestNext() {
+                if (!cancelled && subscription != null) {
+                    subscription.request(1);
+                }
+            }
+
+            private void cancel() {
+                cancelled = true;
+                paused.remove(this);
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+            }
+        }
+    }
+}
@@ -1,22 +1,22 @@
 package ru.craftysoft.platform.gateway.controller;
 
-import graphql.GraphQL;
-import io.quarkus.cache.CacheInvalidateAll;
 import io.quarkus.vertx.web.Route;
-import io.smallrye.mutiny.Uni;
+import io.smallrye.common.annotation.Blocking;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.ext.web.handler.graphql.GraphQLHandler;
-import io.vertx.ext.web.handler.graphql.GraphQLHandlerOptions;
 import lombok.RequiredArgsConstructor;
-import ru.craftysoft.platform.gateway.configuration.GraphQlFactory;
+import ru.craftysoft.platform.gateway.configuration.SchemaRegistry;
 import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
-import ru.craftysoft.platform.gateway.resolver.MainResolver;
+import ru.craftysoft.platform.gateway.service.cache.ResponseCache;
+import ru.craftysoft.platform.gateway.service.client.grpc.BalancedChannel;
+import ru.craftysoft.platform.gateway.service.client.grpc.ConcurrencyLimiter;
+import ru.craftysoft.platform.gateway.service.client.grpc.DynamicGrpcClient;
+import ru.craftysoft.platform.gateway.service.client.grpc.ReflectionGrpcClientAdapter;
+import ru.craftysoft.platform.gateway.service.client.grpc.compression.CompressionStrategy;
 
 import javax.enterprise.context.ApplicationScoped;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -26,22 +26,26 @@ import static java.util.Optional.ofNullable;
 @RequiredArgsConstructor
 public class MainController {
 
-    private final GraphQL graphQl;
-    private final Router router;
-    private final MainResolver mainResolver;
+    private final SchemaRegistry schemaRegistry;
+    private final GraphQlWebSocketHandler graphQlWebSocketHandler;
+    private final ReflectionGrpcClientAdapter reflectionGrpcClientAdapter;
+    private final ResponseCache responseCache;
     private final GraphQlServicesByMethodsMap graphQlServersByMethods;
+    private final Map<String, BalancedChannel> balancedChannels;
+    private final Map<String, DynamicGrpcClient> dynamicGrpcClients;
+    private final Map<String, ConcurrencyLimiter> concurrencyLimiters;
 
-    private final GraphQLHandlerOptions graphQlHandlerOptions = new GraphQLHandlerOptions()
-            .setRequestMultipartEnabled(true)
-            .setRequestBatchingEnabled(true);
-
-    private static final String GRAPHQL_ROUTE_PATH = "/graphql";
-
-    @Route(path = GRAPHQL_ROUTE_PATH)
+    @Route(path = "/graphql")
     public void graphql(RoutingContext routingContext) {
-        GraphQLHandler.create(graphQl, graphQlHandlerOptions).handle(routingContext);
+        schemaRegistry.current().handler().handle(routingContext);
     }
 
+    @Route(path = "/graphql-ws", methods = Route.HttpMethod.GET)
+    public void graphqlWebSocket(RoutingContext routingContext) {
+        graphQlWebSocketHandler.handle(routingContext);
+    }
+
+    @Blocking
     @Route(path = "/refresh", methods = Route.HttpMethod.POST)
     public void refresh(RoutingContext routingContext) {
         var serviceName = routingContext.queryParams().get("service");
@@ -52,31 +56,36 @@ public class MainController {
         if (!isExists) {
             throw new IllegalArgumentException("Контракт с serviceName='%s' не существует".formatted(serviceName));
         }
-        var paths = graphQlServersByMethods.contractsByServices().entrySet().stream()
-                .filter(entry -> !serviceName.equals(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toList());
-        var graphqls = new ArrayList<>(GraphQlFactory.parse(paths));
         var contract = ofNullable(routingContext.getBody())
                 .map(Buffer::getBytes)
                 .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
                 .orElseThrow();
-        graphqls.add(contract);
-        var newGraphQl = GraphQlFactory.graphQlFromContracts(mainResolver::resolve, graphqls);
-        var newGraphQlHandler = GraphQLHandler.create(newGraphQl, graphQlHandlerOptions);
-        invalidateCache().subscribe().asCompletionStage();
-        router.getRoutes().stream()
-                .filter(route -> GRAPHQL_ROUTE_PATH.equals(route.getName()))
-                .findFirst()
-                .orElseThrow()
-                .remove();
-        router.post(GRAPHQL_ROUTE_PATH)
-                .handler(newGraphQlHandler);
-        routingContext.response().end("OK");
+        var snapshot = schemaRegistry.refresh(serviceName, contract);
+        reflectionGrpcClientAdapter.refreshAll();
+        responseCache.invalidate(serviceName);
+        routingContext.response().end("OK, version=" + snapshot.version());
+    }
+
+    @Route(path = "/response-cache/stats", methods = Route.HttpMethod.GET, produces = "application/json")
+    public ResponseCache.Stats responseCacheStats() {
+        return responseCache.stats();
+    }
+
+    @Route(path = "/balancer/stats", methods = Route.HttpMethod.GET, produces = "application/json")
+    public Map<String, List<BalancedChannel.EndpointStats>> balancerStats() {
+        return balancedChannels.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stats()));
+    }
+
+    @Route(path = "/compression/stats", methods = Route.HttpMethod.GET, produces = "application/json")
+    public Map<String, Map<String, CompressionStrategy.MethodCompressionStats>> compressionStats() {
+        return dynamicGrpcClients.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().compressionStats()));
     }
 
-    @CacheInvalidateAll(cacheName = "server-reflection-info")
-    Uni<Void> invalidateCache() {
-        return Uni.createFrom().voidItem();
+    @Route(path = "/concurrency-limits/stats", methods = Route.HttpMethod.GET, produces = "application/json")
+    public Map<String, ConcurrencyLimiter.Stats> concurrencyLimitStats() {
+        return concurrencyLimiters.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stats()));
     }
 }
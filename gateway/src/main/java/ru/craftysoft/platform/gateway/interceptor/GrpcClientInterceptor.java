@@ -1,50 +1,53 @@
 package ru.craftysoft.platform.gateway.interceptor;
 
-import com.google.protobuf.InvalidProtocolBufferException;
-import com.google.protobuf.MessageOrBuilder;
-import com.google.protobuf.util.JsonFormat;
+import com.google.protobuf.Descriptors;
 import io.grpc.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.craftysoft.platform.gateway.service.logging.PayloadLogger;
+import ru.craftysoft.platform.gateway.service.logging.RawMessage;
 
 public class GrpcClientInterceptor implements ClientInterceptor {
 
+    public static final CallOptions.Key<Descriptors.Descriptor> RESPONSE_TYPE = CallOptions.Key.create("response-type");
+
     private final Logger requestLogger;
     private final Logger responseLogger;
+    private final PayloadLogger payloadLogger;
 
-    public GrpcClientInterceptor(Class<?> clientClass) {
+    public GrpcClientInterceptor(Class<?> clientClass, PayloadLogger payloadLogger) {
         this.requestLogger = LoggerFactory.getLogger(clientClass.getName() + ".request");
         this.responseLogger = LoggerFactory.getLogger(clientClass.getName() + ".response");
+        this.payloadLogger = payloadLogger;
     }
 
     @Override
     public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
         var newCall = next.newCall(method, callOptions);
-        return new LoggingClientCall<>(newCall, method);
+        if (!requestLogger.isDebugEnabled() && !responseLogger.isDebugEnabled()) {
+            return newCall;
+        }
+        if (!payloadLogger.sampled(method.getBareMethodName())) {
+            return newCall;
+        }
+        return new LoggingClientCall<>(newCall, method, callOptions.getOption(RESPONSE_TYPE));
     }
 
     private class LoggingClientCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
 
         private final MethodDescriptor<ReqT, RespT> method;
-        private final JsonFormat.Printer printer;
+        private final Descriptors.Descriptor responseType;
 
-        protected LoggingClientCall(ClientCall<ReqT, RespT> delegate, MethodDescriptor<ReqT, RespT> method) {
+        protected LoggingClientCall(ClientCall<ReqT, RespT> delegate, MethodDescriptor<ReqT, RespT> method, Descriptors.Descriptor responseType) {
             super(delegate);
             this.method = method;
-            this.printer = JsonFormat.printer();
+            this.responseType = responseType;
         }
 
         @Override
         public void sendMessage(ReqT message) {
-            if (requestLogger.isDebugEnabled() && message instanceof MessageOrBuilder messageOrBuilder) {
-                try {
-                    var json = printer.print(messageOrBuilder);
-                    requestLogger.debug("method={}\nrequest={}", method.getBareMethodName(), json);
-                } catch (InvalidProtocolBufferException e) {
-                    requestLogger.error("ошибка при преобразовании сообщения в JSON", e);
-                } catch (Exception e) {
-                    responseLogger.error("ошибка", e);
-                }
+            if (requestLogger.isDebugEnabled()) {
+                payloadLogger.debug(requestLogger, "method={}\nrequest={}", method.getBareMethodName(), message);
             }
             super.sendMessage(message);
         }
@@ -54,15 +57,11 @@ public class GrpcClientInterceptor implements ClientInterceptor {
             var listener = new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
                 @Override
                 public void onMessage(RespT message) {
-                    if (responseLogger.isDebugEnabled() && message instanceof MessageOrBuilder messageOrBuilder) {
-                        try {
-                            var json = printer.print(messageOrBuilder);
-                            responseLogger.debug("method={}\nresponse={}", method.getBareMethodName(), json);
-                        } catch (InvalidProtocolBufferException e) {
-                            responseLogger.error("ошибка при преобразовании сообщения в JSON", e);
-                        } catch (Exception e) {
-                            responseLogger.error("ошибка", e);
-                        }
+                    if (responseLogger.isDebugEnabled()) {
+                        var payload = message instanceof byte[] bytes && responseType != null
+                                ? new RawMessage(responseType, bytes)
+                                : message;
+                        payloadLogger.debug(responseLogger, "method={}\nresponse={}", method.getBareMethodName(), payload);
                     }
                     super.onMessage(message);
                 }
@@ -0,0 +1,39 @@
+package ru.craftysoft.platform.gateway.resolver;
+
+import com.google.protobuf.Descriptors;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.PropertyDataFetcher;
+import ru.craftysoft.platform.gateway.builder.DynamicMessageMapView;
+
+public class DynamicMessageDataFetcher implements DataFetcher<Object> {
+
+    private final String fieldName;
+    private final PropertyDataFetcher<Object> propertyDataFetcher;
+    private ResolvedField resolvedField;
+
+    public DynamicMessageDataFetcher(String fieldName) {
+        this.fieldName = fieldName;
+        this.propertyDataFetcher = PropertyDataFetcher.fetching(fieldName);
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        var source = environment.getSource();
+        if (source instanceof DynamicMessageMapView view) {
+            var descriptor = view.descriptor();
+            var cached = resolvedField;
+            if (cached == null || cached.descriptor() != descriptor) {
+                cached = new ResolvedField(descriptor, descriptor.findFieldByName(fieldName));
+                resolvedField = cached;
+            }
+            return cached.field() == null
+                    ? null
+                    : view.get(cached.field());
+        }
+        return propertyDataFetcher.get(environment);
+    }
+
+    private record ResolvedField(Descriptors.Descriptor descriptor, Descriptors.FieldDescriptor field) {
+    }
+}
@@ -0,0 +1,134 @@
+package ru.craftysoft.platform.gateway.resolver;
+
+import graphql.GraphqlErrorException;
+import graphql.schema.*;
+import io.grpc.Deadline;
+import io.smallrye.mutiny.Multi;
+import org.dataloader.BatchLoaderEnvironment;
+import org.dataloader.BatchLoaderWithContext;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+import ru.craftysoft.platform.gateway.builder.DynamicMessageMapView;
+import ru.craftysoft.platform.gateway.builder.SelectionSignature;
+import ru.craftysoft.platform.gateway.configuration.ExecutionDeadlineProvider;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.ExecutionTimings;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+@ApplicationScoped
+public class JoinResolver {
+
+    private final MainResolver mainResolver;
+    private final Map<String, GraphQlServicesByMethodsMap.JoinConfiguration> joins;
+
+    public JoinResolver(MainResolver mainResolver, GraphQlServicesByMethodsMap graphQlServersByMethods) {
+        this.mainResolver = mainResolver;
+        this.joins = graphQlServersByMethods.joins();
+    }
+
+    public Map<FieldCoordinates, DataFetcher<?>> dataFetchers() {
+        var dataFetchers = new HashMap<FieldCoordinates, DataFetcher<?>>();
+        joins.forEach((coordinates, join) -> {
+            var typeAndField = coordinates.split("\\.");
+            if (typeAndField.length != 2) {
+                throw new IllegalArgumentException("Некорректное поле '%s' в graphql.joins, ожидается 'Type.field'".formatted(coordinates));
+            }
+            var fieldCoordinates = FieldCoordinates.coordinates(typeAndField[0], typeAndField[1]);
+            dataFetchers.put(fieldCoordinates, new JoinDataFetcher(coordinates, join.sourceField()));
+        });
+        return dataFetchers;
+    }
+
+    public DataLoaderRegistry dataLoaderRegistry() {
+        var registry = new DataLoaderRegistry();
+        joins.forEach((coordinates, join) -> registry.register(coordinates, DataLoaderFactory.newDataLoader(new JoinBatchLoader(join))));
+        return registry;
+    }
+
+    private class JoinBatchLoader implements BatchLoaderWithContext<JoinKey, Object> {
+
+        private final GraphQlServicesByMethodsMap.JoinConfiguration join;
+
+        private JoinBatchLoader(GraphQlServicesByMethodsMap.JoinConfiguration join) {
+            this.join = join;
+        }
+
+        @Override
+        public CompletionStage<List<Object>> load(List<JoinKey> keys, BatchLoaderEnvironment environment) {
+            var keyContexts = environment.getKeyContexts();
+            var values = new Object[keys.size()];
+            return Multi.createFrom().range(0, keys.size())
+                    .onItem().transformToUni(index -> {
+                        var key = keys.get(index);
+                        var keyContext = (JoinKeyContext) keyContexts.get(key);
+                        return mainResolver.resolve(join.method(), Map.of(join.argument(), key.value()), keyContext.selectionSet(), keyContext.list(), keyContext.deadline(), keyContext.timing())
+                                .onFailure().recoverWithItem(failure -> failure)
+                                .invoke(value -> values[index] = value);
+                    })
+                    .merge(join.maxConcurrency())
+                    .collect().last()
+                    .<List<Object>>map(ignored -> Arrays.asList(values))
+                    .subscribeAsCompletionStage();
+        }
+    }
+
+    private static class JoinDataFetcher implements DataFetcher<CompletableFuture<Object>> {
+
+        private final String dataLoaderName;
+        private final String sourceField;
+
+        private JoinDataFetcher(String dataLoaderName, String sourceField) {
+            this.dataLoaderName = dataLoaderName;
+            this.sourceField = sourceField;
+        }
+
+        @Override
+        public CompletableFuture<Object> get(DataFetchingEnvironment environment) {
+            var key = key(environment.getSource());
+            if (key == null) {
+                return CompletableFuture.failedFuture(GraphqlErrorException.newErrorException()
+                        .message("Не найдено значение поля '%s' для связи '%s'".formatted(sourceField, dataLoaderName))
+                        .extensions(Map.of("code", "JOIN_KEY_MISSING"))
+                        .build());
+            }
+            DataLoader<JoinKey, Object> dataLoader = environment.getDataLoader(dataLoaderName);
+            var list = GraphQLTypeUtil.unwrapNonNull(environment.getFieldType()) instanceof GraphQLList;
+            var selectionSet = environment.getSelectionSet();
+            var graphQlContext = environment.getGraphQlContext();
+            var keyContext = new JoinKeyContext(
+                    selectionSet,
+                    list,
+                    ExecutionDeadlineProvider.from(graphQlContext),
+                    ExecutionTimings.field(graphQlContext, dataLoaderName)
+            );
+            return dataLoader.load(new JoinKey(key, list, SelectionSignature.of(selectionSet)), keyContext);
+        }
+
+        private Object key(Object source) {
+            if (source instanceof DynamicMessageMapView view) {
+                var field = view.descriptor().findFieldByName(sourceField);
+                return field == null ? null : view.getWithDefault(field);
+            }
+            return source instanceof Map<?, ?> map
+                    ? map.get(sourceField)
+                    : null;
+        }
+    }
+
+    private record JoinKey(Object value, boolean list, String selection) {
+    }
+
+    private record JoinKeyContext(DataFetchingFieldSelectionSet selectionSet,
+                                  boolean list,
+                                  Deadline deadline,
+                                  ExecutionTimings.FieldTiming timing) {
+    }
+}
@@ -1,19 +1,37 @@
 package ru.craftysoft.platform.gateway.resolver;
 
+import graphql.language.OperationDefinition;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLTypeUtil;
+import io.grpc.Deadline;
+import io.micrometer.core.instrument.Timer;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.vertx.UniHelper;
 import io.vertx.core.Future;
 import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import ru.craftysoft.platform.gateway.builder.DirectResponseWriter;
+import ru.craftysoft.platform.gateway.builder.DirectSelection;
+import ru.craftysoft.platform.gateway.builder.ProjectedResponseParser;
 import ru.craftysoft.platform.gateway.builder.ResponseBuilder;
+import ru.craftysoft.platform.gateway.builder.dynamic.InvocationPlan;
+import ru.craftysoft.platform.gateway.builder.dynamic.InvocationPlanRegistry;
+import ru.craftysoft.platform.gateway.configuration.ExecutionDeadlineProvider;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.DirectResponses;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.ExecutionTimings;
 import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
 import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
+import ru.craftysoft.platform.gateway.service.client.grpc.CallMode;
 import ru.craftysoft.platform.gateway.service.client.grpc.DynamicGrpcClientAdapter;
 import ru.craftysoft.platform.gateway.service.client.grpc.ReflectionGrpcClientAdapter;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
 
 import javax.enterprise.context.ApplicationScoped;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Optional.ofNullable;
 
@@ -24,23 +42,146 @@ public class MainResolver {
     private final GrpcClientConfigurationMap configurationMap;
     private final GraphQlServicesByMethodsMap graphQlServersByMethods;
     private final ResponseBuilder responseBuilder;
+    private final DirectResponseWriter directResponseWriter;
+    private final ProjectedResponseParser responseParser;
     private final DynamicGrpcClientAdapter dynamicGrpcClientAdapter;
     private final ReflectionGrpcClientAdapter reflectionGrpcClientAdapter;
+    private final InvocationPlanRegistry invocationPlanRegistry;
+    private final ExecutionDeadlineProvider executionDeadlineProvider;
+    private final GatewayMetrics metrics;
 
     public Future<Object> resolve(DataFetchingEnvironment environment) {
         var methodName = environment.getFieldDefinition().getName();
         var request = resolveRequest(environment.getArguments());
-        var selectionSet = environment.getSelectionSet();
-        var uni = resolve(methodName, request, selectionSet);
+        var uni = resolve(methodName, request, environment);
         return UniHelper.toFuture(uni);
     }
 
-    private Uni<Object> resolve(String methodName, Map<String, Object> request, DataFetchingFieldSelectionSet selectionSet) {
+    public CompletableFuture<Publisher<Object>> subscribe(DataFetchingEnvironment environment) {
+        var methodName = environment.getFieldDefinition().getName();
+        var request = resolveRequest(environment.getArguments());
+        var serverName = graphQlServersByMethods.servicesByMethods().get(methodName);
+        var selectionSet = environment.getSelectionSet();
+        var list = GraphQLTypeUtil.unwrapNonNull(environment.getFieldType()) instanceof GraphQLList;
+        return resolvePlan(methodName, serverName)
+                .map(plan -> {
+                    if (!plan.method().isServerStreaming()) {
+                        throw new IllegalArgumentException("Метод '%s' не является потоковым".formatted(methodName));
+                    }
+                    var projection = responseParser.compile(plan.outputType(), list, selectionSet);
+                    return (Publisher<Object>) dynamicGrpcClientAdapter.processServerStreamingRequest(plan, request, selectionSet, projection, serverName)
+                            .map(response -> responseBuilder.build(response, plan.descriptorIndex(), list));
+                })
+                .subscribeAsCompletionStage();
+    }
+
+    public Uni<Object> resolve(String methodName,
+                               Map<String, Object> request,
+                               DataFetchingFieldSelectionSet selectionSet,
+                               boolean list,
+                               Deadline deadline,
+                               ExecutionTimings.FieldTiming timing) {
+        var exhausted = executionDeadlineProvider.checkRemaining(deadline, methodName);
+        if (exhausted != null) {
+            return Uni.createFrom().failure(exhausted);
+        }
         var serverName = graphQlServersByMethods.servicesByMethods().get(methodName);
+        var callMode = callMode(methodName, false, deadline, timing);
+        return resolvePlan(methodName, serverName, timing)
+                .flatMap(plan -> process(plan, request, selectionSet, list, serverName, callMode));
+    }
+
+    private Uni<Object> resolve(String methodName, Map<String, Object> request, DataFetchingEnvironment environment) {
+        var serverName = graphQlServersByMethods.servicesByMethods().get(methodName);
+        var selectionSet = environment.getSelectionSet();
+        var list = GraphQLTypeUtil.unwrapNonNull(environment.getFieldType()) instanceof GraphQLList;
+        var deadline = ExecutionDeadlineProvider.from(environment.getGraphQlContext());
+        var exhausted = executionDeadlineProvider.checkRemaining(deadline, methodName);
+        if (exhausted != null) {
+            return Uni.createFrom().failure(exhausted);
+        }
+        var mutation = environment.getOperationDefinition().getOperation() == OperationDefinition.Operation.MUTATION;
+        var timing = ExecutionTimings.field(environment.getGraphQlContext(), environment.getExecutionStepInfo().getPath().toString());
+        var callMode = callMode(methodName, mutation, deadline, timing);
+        return resolvePlan(methodName, serverName, timing)
+                .flatMap(plan -> {
+                    if (isDirectResponseMethod(methodName, environment)) {
+                        var directSelection = directResponseWriter.compile(plan.outputType(), environment.getFieldType(), selectionSet);
+                        if (directSelection != null) {
+                            return resolveDirect(plan, request, environment, serverName, directSelection, callMode);
+                        }
+                    }
+                    return process(plan, request, selectionSet, list, serverName, callMode);
+                });
+    }
+
+    private Uni<InvocationPlan> resolvePlan(String methodName, String serverName, ExecutionTimings.FieldTiming timing) {
+        if (timing == null) {
+            return resolvePlan(methodName, serverName);
+        }
+        var startedAt = System.nanoTime();
+        return resolvePlan(methodName, serverName)
+                .invoke(plan -> timing.reflection(System.nanoTime() - startedAt));
+    }
+
+    private Uni<InvocationPlan> resolvePlan(String methodName, String serverName) {
         var serviceName = configurationMap.services().get(serverName).serviceName();
         return reflectionGrpcClientAdapter.serverReflectionInfo(serverName, serviceName)
-                .flatMap(fileDescriptor -> dynamicGrpcClientAdapter.processRequest(methodName, request, selectionSet, fileDescriptor, serverName, serviceName))
-                .map(responseBuilder::build);
+                .map(fileDescriptor -> invocationPlanRegistry.resolve(serverName, serviceName, methodName, fileDescriptor));
+    }
+
+    private Uni<Object> process(InvocationPlan plan,
+                                Map<String, Object> request,
+                                DataFetchingFieldSelectionSet selectionSet,
+                                boolean list,
+                                String serverName,
+                                CallMode callMode) {
+        var projection = responseParser.compile(plan.outputType(), list, selectionSet);
+        var responseBuildTimer = metrics.responseBuildTimer(plan.method().getName());
+        return dynamicGrpcClientAdapter.processRequest(plan, request, selectionSet, projection, serverName, callMode)
+                .map(response -> {
+                    var startedAt = System.nanoTime();
+                    var result = responseBuilder.build(response, plan.descriptorIndex(), list);
+                    recordConvert(responseBuildTimer, callMode, System.nanoTime() - startedAt);
+                    return result;
+                });
+    }
+
+    private Uni<Object> resolveDirect(InvocationPlan plan,
+                                      Map<String, Object> request,
+                                      DataFetchingEnvironment environment,
+                                      String serverName,
+                                      DirectSelection directSelection,
+                                      CallMode callMode) {
+        var resultKey = environment.getField().getResultKey();
+        var directResponses = DirectResponses.from(environment.getGraphQlContext());
+        var responseBuildTimer = metrics.responseBuildTimer(plan.method().getName());
+        return dynamicGrpcClientAdapter.processRawRequest(plan, request, environment.getSelectionSet(), serverName, callMode)
+                .map(bytes -> {
+                    var startedAt = System.nanoTime();
+                    directResponses.put(resultKey, directResponseWriter.write(bytes, directSelection));
+                    recordConvert(responseBuildTimer, callMode, System.nanoTime() - startedAt);
+                    return null;
+                });
+    }
+
+    private static void recordConvert(Timer responseBuildTimer, CallMode callMode, long nanos) {
+        responseBuildTimer.record(nanos, TimeUnit.NANOSECONDS);
+        if (callMode.timing() != null) {
+            callMode.timing().convert(nanos);
+        }
+    }
+
+    private CallMode callMode(String methodName, boolean mutation, Deadline deadline, ExecutionTimings.FieldTiming timing) {
+        var hedging = graphQlServersByMethods.hedging();
+        var retryable = !mutation || hedging.safeMutations().map(methods -> methods.contains(methodName)).orElse(false);
+        var hedged = retryable && hedging.methods().map(methods -> methods.contains(methodName)).orElse(false);
+        return new CallMode(retryable, hedged, deadline, timing);
+    }
+
+    private boolean isDirectResponseMethod(String methodName, DataFetchingEnvironment environment) {
+        return environment.getExecutionStepInfo().getPath().getLevel() == 1
+                && graphQlServersByMethods.directResponseMethods().map(methods -> methods.contains(methodName)).orElse(false);
     }
 
     private Map<String, Object> resolveRequest(Map<String, Object> arguments) {
@@ -0,0 +1,213 @@
+package ru.craftysoft.platform.gateway.service.cache;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.UnsafeByteOperations;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@ApplicationScoped
+public class ResponseCache {
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+
+    private final Map<String, Long> ttlByMethods;
+    private final int blockSize;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(GraphQlServicesByMethodsMap graphQlServersByMethods) {
+        var configuration = graphQlServersByMethods.responseCache();
+        this.ttlByMethods = configuration.ttlByMethods();
+        this.blockSize = configuration.blockSize();
+        var blocksCount = ttlByMethods.isEmpty()
+                ? 0
+                : (int) Math.min(configuration.capacity() / blockSize, Integer.MAX_VALUE / blockSize);
+        var segmentsCount = Math.max(1, Math.min(MAXIMUM_SEGMENTS, blocksCount));
+        var blocksPerSegment = blocksCount / segmentsCount;
+        var slab = ByteBuffer.allocateDirect(blocksPerSegment * segmentsCount * blockSize);
+        this.segments = new Segment[segmentsCount];
+        for (int i = 0; i < segmentsCount; i++) {
+            segments[i] = new Segment(slab.slice(i * blocksPerSegment * blockSize, blocksPerSegment * blockSize), blocksPerSegment);
+        }
+    }
+
+    public long ttl(String methodName) {
+        return ttlByMethods.getOrDefault(methodName, 0L);
+    }
+
+    public Key key(String serverName, String methodName, DynamicMessage request) {
+        var bytes = new byte[request.getSerializedSize()];
+        var output = CodedOutputStream.newInstance(bytes);
+        output.useDeterministicSerialization();
+        try {
+            request.writeTo(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        output.checkNoSpaceLeft();
+        return new Key(serverName, methodName, UnsafeByteOperations.unsafeWrap(bytes));
+    }
+
+    public byte[] get(Key key) {
+        return segment(key).get(key);
+    }
+
+    public void put(Key key, byte[] value, long ttl) {
+        segment(key).put(key, value, ttl);
+    }
+
+    public void invalidate(String serverName) {
+        for (var segment : segments) {
+            segment.invalidate(serverName);
+        }
+    }
+
+    public void invalidateAll() {
+        for (var segment : segments) {
+            segment.invalidateAll();
+        }
+    }
+
+    public Stats stats() {
+        var entries = 0;
+        var usedBytes = 0L;
+        var allocatedBytes = 0L;
+        var capacity = 0L;
+        for (var segment : segments) {
+            synchronized (segment) {
+                entries += segment.entries.size();
+                usedBytes += segment.usedBytes;
+                allocatedBytes += (long) (segment.freeBlocks.length - segment.freeBlocksCount) * blockSize;
+                capacity += (long) segment.freeBlocks.length * blockSize;
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries, usedBytes, allocatedBytes, capacity);
+    }
+
+    private Segment segment(Key key) {
+        var hash = key.hashCode();
+        return segments[Math.floorMod(hash ^ hash >>> 16, segments.length)];
+    }
+
+    private class Segment {
+        private final ByteBuffer slab;
+        private final int[] freeBlocks;
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private int freeBlocksCount;
+        private long usedBytes;
+
+        private Segment(ByteBuffer slab, int blocksCount) {
+            this.slab = slab;
+            this.freeBlocks = new int[blocksCount];
+            resetFreeBlocks();
+        }
+
+        private synchronized byte[] get(Key key) {
+            var entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt() >= 0) {
+                remove(key);
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            var result = new byte[entry.length()];
+            var offset = 0;
+            for (var block : entry.blocks()) {
+                var length = Math.min(blockSize, result.length - offset);
+                slab.get(block * blockSize, result, offset, length);
+                offset += length;
+            }
+            return result;
+        }
+
+        private synchronized void put(Key key, byte[] value, long ttl) {
+            var blocksNeeded = Math.max(1, (value.length + blockSize - 1) / blockSize);
+            if (blocksNeeded > freeBlocks.length) {
+                return;
+            }
+            remove(key);
+            var iterator = entries.entrySet().iterator();
+            while (freeBlocksCount < blocksNeeded && iterator.hasNext()) {
+                var eldest = iterator.next().getValue();
+                iterator.remove();
+                release(eldest);
+                evictions.increment();
+            }
+            var blocks = new int[blocksNeeded];
+            var offset = 0;
+            for (int i = 0; i < blocksNeeded; i++) {
+                var block = freeBlocks[--freeBlocksCount];
+                var length = Math.min(blockSize, value.length - offset);
+                slab.put(block * blockSize, value, offset, length);
+                offset += length;
+                blocks[i] = block;
+            }
+            usedBytes += value.length;
+            entries.put(key, new Entry(blocks, value.length, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl)));
+        }
+
+        private synchronized void invalidate(String serverName) {
+            var iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.getKey().serverName().equals(serverName)) {
+                    iterator.remove();
+                    release(entry.getValue());
+                }
+            }
+        }
+
+        private synchronized void invalidateAll() {
+            entries.clear();
+            usedBytes = 0;
+            resetFreeBlocks();
+        }
+
+        private void remove(Key key) {
+            var entry = entries.remove(key);
+            if (entry != null) {
+                release(entry);
+            }
+        }
+
+        private void release(Entry entry) {
+            for (var block : entry.blocks()) {
+                freeBlocks[freeBlocksCount++] = block;
+            }
+            usedBytes -= entry.length();
+        }
+
+        private void resetFreeBlocks() {
+            for (int i = 0; i < freeBlocks.length; i++) {
+                freeBlocks[i] = freeBlocks.length - 1 - i;
+            }
+            freeBlocksCount = freeBlocks.length;
+        }
+    }
+
+    public record Key(String serverName, String methodName, ByteString request) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, int entries, long usedBytes, long allocatedBytes, long capacity) {
+    }
+
+    private record Entry(int[] blocks, int length, long expiresAt) {
+    }
+}
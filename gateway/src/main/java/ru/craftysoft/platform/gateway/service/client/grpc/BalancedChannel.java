@@ -0,0 +1,195 @@
+package ru.craftysoft.platform.gateway.service.client.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BalancedChannel extends Channel {
+
+    private static final double DECAY = 0.3;
+    private static final int MINIMUM_REQUESTS = 10;
+    private static final Set<Status.Code> FAILURES = Set.of(
+            Status.Code.UNAVAILABLE,
+            Status.Code.DEADLINE_EXCEEDED,
+            Status.Code.INTERNAL,
+            Status.Code.UNKNOWN,
+            Status.Code.RESOURCE_EXHAUSTED
+    );
+
+    private final Endpoint[] endpoints;
+    private final GrpcClientConfigurationMap.OutlierDetectionConfiguration outlierDetection;
+    private final long ejectionTime;
+
+    public BalancedChannel(List<ManagedChannel> channels, GrpcClientConfigurationMap.OutlierDetectionConfiguration outlierDetection) {
+        this.endpoints = channels.stream().map(Endpoint::new).toArray(Endpoint[]::new);
+        this.outlierDetection = outlierDetection;
+        this.ejectionTime = TimeUnit.MILLISECONDS.toNanos(outlierDetection.ejectionTime());
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+        var endpoint = choose();
+        var call = endpoint.channel.newCall(methodDescriptor, callOptions);
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                var startedAt = System.nanoTime();
+                endpoint.outstanding.incrementAndGet();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        complete(endpoint, System.nanoTime() - startedAt, status);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    @Override
+    public String authority() {
+        return endpoints[0].channel.authority();
+    }
+
+    public List<EndpointStats> stats() {
+        var now = System.nanoTime();
+        return Arrays.stream(endpoints)
+                .map(endpoint -> new EndpointStats(
+                        endpoint.channel.authority(),
+                        endpoint.requests.sum(),
+                        endpoint.outstanding.get(),
+                        Double.longBitsToDouble(endpoint.latency.get()) / 1_000_000,
+                        Double.longBitsToDouble(endpoint.errorRate.get()),
+                        endpoint.isEjected(now)
+                ))
+                .toList();
+    }
+
+    private Endpoint choose() {
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        var now = System.nanoTime();
+        var random = ThreadLocalRandom.current();
+        var first = pick(random, now, -1);
+        var second = pick(random, now, first);
+        return score(endpoints[first]) <= score(endpoints[second])
+                ? endpoints[first]
+                : endpoints[second];
+    }
+
+    private int pick(ThreadLocalRandom random, long now, int excluded) {
+        var start = random.nextInt(endpoints.length);
+        for (int i = 0; i < endpoints.length; i++) {
+            var index = (start + i) % endpoints.length;
+            if (index != excluded && !endpoints[index].isEjected(now)) {
+                return index;
+            }
+        }
+        if (excluded < 0) {
+            return random.nextInt(endpoints.length);
+        }
+        var index = random.nextInt(endpoints.length - 1);
+        return index >= excluded ? index + 1 : index;
+    }
+
+    private static double score(Endpoint endpoint) {
+        return Double.longBitsToDouble(endpoint.latency.get()) * (endpoint.outstanding.get() + 1);
+    }
+
+    private void complete(Endpoint endpoint, long latency, Status status) {
+        endpoint.outstanding.decrementAndGet();
+        endpoint.requests.increment();
+        update(endpoint.latency, latency, true);
+        update(endpoint.errorRate, FAILURES.contains(status.getCode()) ? 1 : 0, false);
+        if (endpoint.requests.sum() >= MINIMUM_REQUESTS && isOutlier(endpoint)) {
+            eject(endpoint);
+        }
+    }
+
+    private boolean isOutlier(Endpoint endpoint) {
+        if (Double.longBitsToDouble(endpoint.errorRate.get()) > outlierDetection.errorRate()) {
+            return true;
+        }
+        var latency = Double.longBitsToDouble(endpoint.latency.get());
+        var fastest = fastestLatency(endpoint);
+        return fastest.isPresent() && latency > fastest.getAsDouble() * outlierDetection.latencyFactor();
+    }
+
+    private OptionalDouble fastestLatency(Endpoint endpoint) {
+        return Arrays.stream(endpoints)
+                .filter(other -> other != endpoint && other.requests.sum() >= MINIMUM_REQUESTS)
+                .mapToDouble(other -> Double.longBitsToDouble(other.latency.get()))
+                .min();
+    }
+
+    private void eject(Endpoint endpoint) {
+        var now = System.nanoTime();
+        if (endpoint.isEjected(now)) {
+            return;
+        }
+        var ejected = Arrays.stream(endpoints).filter(other -> other.isEjected(now)).count();
+        if ((ejected + 1) * 100 > (long) endpoints.length * outlierDetection.maxEjectionPercent()) {
+            return;
+        }
+        endpoint.ejectedUntil = now + ejectionTime;
+        endpoint.errorRate.set(Double.doubleToLongBits(0));
+        endpoint.latency.set(Double.doubleToLongBits(fastestLatency(endpoint).orElse(0)));
+        endpoint.requests.reset();
+    }
+
+    private static void update(AtomicLong ewma, double sample, boolean seedWithFirstSample) {
+        long current;
+        long updated;
+        do {
+            current = ewma.get();
+            var value = Double.longBitsToDouble(current);
+            updated = Double.doubleToLongBits(seedWithFirstSample && value == 0
+                    ? sample
+                    : value + DECAY * (sample - value));
+        } while (!ewma.compareAndSet(current, updated));
+    }
+
+    private static class Endpoint {
+        private final ManagedChannel channel;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong latency = new AtomicLong(Double.doubleToLongBits(0));
+        private final AtomicLong errorRate = new AtomicLong(Double.doubleToLongBits(0));
+        private final LongAdder requests = new LongAdder();
+        private volatile long ejectedUntil;
+
+        private Endpoint(ManagedChannel channel) {
+            this.channel = channel;
+        }
+
+        private boolean isEjected(long now) {
+            var until = ejectedUntil;
+            return until != 0 && now - until < 0;
+        }
+    }
+
+    public record EndpointStats(String target,
+                                long requests,
+                                int outstanding,
+                                double latencyMillis,
+                                double errorRate,
+                                boolean ejected) {
+    }
+}
@@ -0,0 +1,7 @@
+package ru.craftysoft.platform.gateway.service.client.grpc;
+
+import io.grpc.Deadline;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.ExecutionTimings;
+
+public record CallMode(boolean retryable, boolean hedged, Deadline deadline, ExecutionTimings.FieldTiming timing) {
+}
@@ -0,0 +1,25 @@
+package ru.craftysoft.platform.gateway.service.client.grpc;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+
+class CallerContext {
+
+    private final Context context;
+
+    private CallerContext(Context context) {
+        this.context = context;
+    }
+
+    static CallerContext capture() {
+        return new CallerContext(Vertx.currentContext());
+    }
+
+    void run(Runnable action) {
+        if (context == null || context == Vertx.currentContext()) {
+            action.run();
+        } else {
+            context.runOnContext(ignored -> action.run());
+        }
+    }
+}
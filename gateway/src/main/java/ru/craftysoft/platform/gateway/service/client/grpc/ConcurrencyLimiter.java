@@ -0,0 +1,104 @@
+package ru.craftysoft.platform.gateway.service.client.grpc;
+
+import graphql.GraphqlErrorException;
+import io.grpc.Status;
+import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrencyLimiter {
+
+    private static final double LONG_RTT_DECAY = 0.01;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String serverName;
+    private final GrpcClientConfigurationMap.ConcurrencyLimitConfiguration configuration;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private double longRtt = -1;
+
+    public ConcurrencyLimiter(String serverName, GrpcClientConfigurationMap.ConcurrencyLimitConfiguration configuration) {
+        this.serverName = serverName;
+        this.configuration = configuration;
+        this.limit = configuration.initialLimit();
+    }
+
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(System.nanoTime(), current + 1);
+    }
+
+    public GraphqlErrorException reject() {
+        rejected.increment();
+        return GraphqlErrorException.newErrorException()
+                .message("Превышен лимит одновременных запросов к сервису '%s'".formatted(serverName))
+                .extensions(Map.of("code", "SERVICE_OVERLOADED", "service", serverName))
+                .build();
+    }
+
+    public Stats stats() {
+        return new Stats((int) limit, inFlight.get(), rejected.sum());
+    }
+
+    private synchronized void update(long rtt, int inFlightAtStart, boolean dropped) {
+        var current = limit;
+        double next;
+        if (dropped) {
+            next = current * BACKOFF_RATIO;
+        } else {
+            longRtt = longRtt < 0 ? rtt : longRtt * (1 - LONG_RTT_DECAY) + rtt * LONG_RTT_DECAY;
+            if (inFlightAtStart < current / 2) {
+                return;
+            }
+            var gradient = Math.max(0.5, Math.min(1.0, configuration.tolerance() * longRtt / rtt));
+            next = current * gradient + Math.sqrt(current);
+        }
+        next = current * (1 - configuration.smoothing()) + next * configuration.smoothing();
+        limit = Math.max(configuration.minLimit(), Math.min(configuration.maxLimit(), next));
+    }
+
+    private static boolean isDropped(Throwable failure) {
+        if (failure == null) {
+            return false;
+        }
+        var code = Status.fromThrowable(failure).getCode();
+        return code == Status.Code.DEADLINE_EXCEEDED || code == Status.Code.RESOURCE_EXHAUSTED;
+    }
+
+    public class Permit {
+        private final long startedAt;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startedAt, int inFlightAtStart) {
+            this.startedAt = startedAt;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        public void release(Throwable failure) {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                update(System.nanoTime() - startedAt, inFlightAtStart, isDropped(failure));
+            }
+        }
+
+        public void cancel() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    public record Stats(int limit, int inFlight, long rejected) {
+    }
+}
@@ -1,31 +1,149 @@
 package ru.craftysoft.platform.gateway.service.client.grpc;
 
+import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
 import io.grpc.Deadline;
 import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import lombok.RequiredArgsConstructor;
+import ru.craftysoft.platform.gateway.interceptor.GrpcClientInterceptor;
+import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
+import ru.craftysoft.platform.gateway.service.client.grpc.compression.CompressionStrategy;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-
-import static io.quarkus.grpc.stubs.ClientCalls.oneToOne;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RequiredArgsConstructor
 public class DynamicGrpcClient {
     private final Channel channel;
     private final long deadline;
+    private final CompressionStrategy compressionStrategy;
+    private final RetryBudget retryBudget;
+    private final GrpcClientConfigurationMap.RetryConfiguration retry;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final GatewayMetrics metrics;
+    private final Map<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
 
-    public Uni<DynamicMessage> callUnary(DynamicMessage request, MethodDescriptor<DynamicMessage, DynamicMessage> methodDescriptor) {
-        var call = channel
-                .newCall(
-                        methodDescriptor,
-                        CallOptions.DEFAULT.withDeadline(Deadline.after(deadline, TimeUnit.MILLISECONDS))
-                );
-        return oneToOne(
-                request,
-                (message, streamObserver) -> io.grpc.stub.ClientCalls.asyncUnaryCall(call, message, streamObserver)
+    public <T> Uni<T> callUnary(DynamicMessage request,
+                                MethodDescriptor<DynamicMessage, T> methodDescriptor,
+                                Descriptors.Descriptor responseType,
+                                CallMode callMode) {
+        var callDeadline = Deadline.after(deadline, TimeUnit.MILLISECONDS);
+        if (callMode.deadline() != null) {
+            callDeadline = callDeadline.minimum(callMode.deadline());
+        }
+        var callOptions = compressionStrategy.apply(
+                CallOptions.DEFAULT
+                        .withDeadline(callDeadline)
+                        .withOption(GrpcClientInterceptor.RESPONSE_TYPE, responseType),
+                methodDescriptor,
+                request
         );
+        var latencyTracker = latencies.computeIfAbsent(methodDescriptor.getFullMethodName(), name -> new LatencyTracker(retry.hedgePercentile(), metrics.rttTimer(name)));
+        return Uni.createFrom().deferred(() -> {
+            retryBudget.deposit();
+            return hedge(request, methodDescriptor, callOptions, callMode, latencyTracker)
+                    .onFailure(throwable -> callMode.retryable() && isUnavailable(throwable) && retryBudget.tryWithdraw())
+                    .retry().atMost(retry.maxRetries());
+        });
+    }
+
+    public Map<String, CompressionStrategy.MethodCompressionStats> compressionStats() {
+        return compressionStrategy.stats();
+    }
+
+    public <T> Multi<T> callServerStreaming(DynamicMessage request,
+                                            MethodDescriptor<DynamicMessage, T> methodDescriptor,
+                                            Descriptors.Descriptor responseType) {
+        return Multi.createFrom().deferred(() -> {
+            var callOptions = CallOptions.DEFAULT.withOption(GrpcClientInterceptor.RESPONSE_TYPE, responseType);
+            var call = channel.newCall(methodDescriptor, compressionStrategy.apply(callOptions, methodDescriptor, request));
+            return Multi.createFrom().publisher(new ServerStreamingPublisher<>(call, request));
+        });
+    }
+
+    private <T> Uni<T> hedge(DynamicMessage request,
+                             MethodDescriptor<DynamicMessage, T> methodDescriptor,
+                             CallOptions callOptions,
+                             CallMode callMode,
+                             LatencyTracker latencyTracker) {
+        var callerContext = CallerContext.capture();
+        var first = attempt(request, methodDescriptor, callOptions, latencyTracker, callerContext, false);
+        var percentile = latencyTracker.percentileNanos();
+        if (!callMode.hedged() || percentile < 0) {
+            return first;
+        }
+        var delay = Duration.ofNanos(Math.max(percentile, TimeUnit.MILLISECONDS.toNanos(retry.hedgeMinDelay())));
+        var second = Uni.createFrom().voidItem()
+                .onItem().delayIt().by(delay)
+                .onItem().transformToUni(ignored -> attempt(request, methodDescriptor, callOptions, latencyTracker, callerContext, true));
+        return Uni.combine().any().of(first, second);
+    }
+
+    private <T> Uni<T> attempt(DynamicMessage request,
+                               MethodDescriptor<DynamicMessage, T> methodDescriptor,
+                               CallOptions callOptions,
+                               LatencyTracker latencyTracker,
+                               CallerContext callerContext,
+                               boolean hedged) {
+        return Uni.createFrom().emitter(emitter -> {
+            var permit = concurrencyLimiter.tryAcquire();
+            if (permit == null) {
+                if (!hedged) {
+                    emitter.fail(concurrencyLimiter.reject());
+                }
+                return;
+            }
+            if (hedged && !retryBudget.tryWithdraw()) {
+                permit.cancel();
+                return;
+            }
+            var call = channel.newCall(methodDescriptor, callOptions);
+            var startedAt = System.nanoTime();
+            var cancelled = new AtomicBoolean();
+            emitter.onTermination(() -> {
+                cancelled.set(true);
+                permit.cancel();
+                call.cancel("Запрос отменён", null);
+            });
+            ClientCalls.asyncUnaryCall(call, request, new StreamObserver<>() {
+                private T response;
+
+                @Override
+                public void onNext(T value) {
+                    response = value;
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    permit.release(throwable);
+                    if (!cancelled.get() || Status.fromThrowable(throwable).getCode() != Status.Code.CANCELLED) {
+                        latencyTracker.recordFailure(System.nanoTime() - startedAt);
+                    }
+                    callerContext.run(() -> emitter.fail(throwable));
+                }
+
+                @Override
+                public void onCompleted() {
+                    permit.release(null);
+                    latencyTracker.record(System.nanoTime() - startedAt);
+                    callerContext.run(() -> emitter.complete(response));
+                }
+            });
+        });
+    }
+
+    private static boolean isUnavailable(Throwable throwable) {
+        return Status.fromThrowable(throwable).getCode() == Status.Code.UNAVAILABLE;
     }
 }
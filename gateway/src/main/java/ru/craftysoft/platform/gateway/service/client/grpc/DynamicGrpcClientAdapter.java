@@ -1,50 +1,105 @@
 package ru.craftysoft.platform.gateway.service.client.grpc;
 
-import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import graphql.schema.DataFetchingFieldSelectionSet;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
-import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorResolver;
+import ru.craftysoft.platform.gateway.builder.ProjectedResponseParser;
+import ru.craftysoft.platform.gateway.builder.ResponseProjection;
 import ru.craftysoft.platform.gateway.builder.dynamic.DynamicMessageBuilder;
-import ru.craftysoft.platform.gateway.builder.dynamic.DynamicMessageMethodDescriptorBuilder;
-import ru.craftysoft.platform.gateway.builder.dynamic.MethodDescriptorResolver;
+import ru.craftysoft.platform.gateway.builder.dynamic.InvocationPlan;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.ExecutionTimings;
+import ru.craftysoft.platform.gateway.service.cache.ResponseCache;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
 
 import javax.enterprise.context.ApplicationScoped;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class DynamicGrpcClientAdapter {
 
     private final Map<String, DynamicGrpcClient> dynamicGrpcClients;
     private final DynamicMessageBuilder requestBuilder;
-    private final DynamicMessageMethodDescriptorBuilder methodDescriptorBuilder;
-    private final DescriptorResolver descriptorResolver;
-    private final MethodDescriptorResolver methodDescriptorResolver;
+    private final ProjectedResponseParser responseParser;
+    private final ResponseCache responseCache;
+    private final GatewayMetrics metrics;
 
     public DynamicGrpcClientAdapter(Map<String, DynamicGrpcClient> dynamicGrpcClients,
                                     DynamicMessageBuilder requestBuilder,
-                                    DynamicMessageMethodDescriptorBuilder methodDescriptorBuilder,
-                                    DescriptorResolver descriptorResolver,
-                                    MethodDescriptorResolver methodDescriptorResolver) {
+                                    ProjectedResponseParser responseParser,
+                                    ResponseCache responseCache,
+                                    GatewayMetrics metrics) {
         this.dynamicGrpcClients = dynamicGrpcClients;
         this.requestBuilder = requestBuilder;
-        this.methodDescriptorBuilder = methodDescriptorBuilder;
-        this.descriptorResolver = descriptorResolver;
-        this.methodDescriptorResolver = methodDescriptorResolver;
+        this.responseParser = responseParser;
+        this.responseCache = responseCache;
+        this.metrics = metrics;
     }
 
-    public Uni<DynamicMessage> processRequest(String methodName,
+    public Uni<DynamicMessage> processRequest(InvocationPlan plan,
                                               Map<String, Object> request,
                                               DataFetchingFieldSelectionSet selectionSet,
-                                              Descriptors.FileDescriptor fileDescriptor,
+                                              ResponseProjection projection,
                                               String serverName,
-                                              String serviceName) {
-        var method = methodDescriptorResolver.resolve(methodName, fileDescriptor, serviceName);
-        var inputTypeDescriptor = descriptorResolver.resolve(method.getInputType(), fileDescriptor);
-        var outputTypeDescriptor = descriptorResolver.resolve(method.getOutputType(), fileDescriptor);
-        var methodDescriptor = methodDescriptorBuilder.build(serviceName, method.getName(), inputTypeDescriptor, outputTypeDescriptor);
-        var message = requestBuilder.build(inputTypeDescriptor, request, selectionSet);
+                                              CallMode callMode) {
+        return processRawRequest(plan, request, selectionSet, serverName, callMode)
+                .map(bytes -> responseParser.parse(bytes, projection));
+    }
+
+    public Uni<byte[]> processRawRequest(InvocationPlan plan,
+                                         Map<String, Object> request,
+                                         DataFetchingFieldSelectionSet selectionSet,
+                                         String serverName,
+                                         CallMode callMode) {
+        var methodName = plan.method().getName();
+        var message = buildRequest(plan, request, selectionSet, callMode.timing());
+        var dynamicGrpcClient = dynamicGrpcClients.get(serverName);
+        var ttl = responseCache.ttl(methodName);
+        if (ttl <= 0) {
+            return timed(dynamicGrpcClient.callUnary(message, plan.rawMethodDescriptor(), plan.outputType(), callMode), callMode.timing());
+        }
+        var key = responseCache.key(serverName, methodName, message);
+        var cached = responseCache.get(key);
+        if (cached != null) {
+            return Uni.createFrom().item(cached);
+        }
+        return timed(dynamicGrpcClient.callUnary(message, plan.rawMethodDescriptor(), plan.outputType(), callMode), callMode.timing())
+                .invoke(bytes -> responseCache.put(key, bytes, ttl));
+    }
+
+    public Multi<DynamicMessage> processServerStreamingRequest(InvocationPlan plan,
+                                                               Map<String, Object> request,
+                                                               DataFetchingFieldSelectionSet selectionSet,
+                                                               ResponseProjection projection,
+                                                               String serverName) {
+        var message = buildRequest(plan, request, selectionSet, null);
         var dynamicGrpcClient = dynamicGrpcClients.get(serverName);
-        return dynamicGrpcClient.callUnary(message, methodDescriptor);
+        return dynamicGrpcClient.callServerStreaming(message, plan.rawMethodDescriptor(), plan.outputType())
+                .map(bytes -> responseParser.parse(bytes, projection));
+    }
+
+    private DynamicMessage buildRequest(InvocationPlan plan,
+                                        Map<String, Object> request,
+                                        DataFetchingFieldSelectionSet selectionSet,
+                                        ExecutionTimings.FieldTiming timing) {
+        var startedAt = System.nanoTime();
+        var message = requestBuilder.build(plan.inputType(), plan.descriptorIndex(), request, selectionSet);
+        var elapsed = System.nanoTime() - startedAt;
+        metrics.requestBuildTimer(plan.method().getName()).record(elapsed, TimeUnit.NANOSECONDS);
+        if (timing != null) {
+            timing.build(elapsed, message.getSerializedSize());
+        }
+        return message;
+    }
+
+    private static Uni<byte[]> timed(Uni<byte[]> call, ExecutionTimings.FieldTiming timing) {
+        if (timing == null) {
+            return call;
+        }
+        return Uni.createFrom().deferred(() -> {
+            var startedAt = System.nanoTime();
+            return call.invoke(bytes -> timing.backend(System.nanoTime() - startedAt, bytes.length));
+        });
     }
 }
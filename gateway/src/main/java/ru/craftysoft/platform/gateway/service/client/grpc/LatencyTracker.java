@@ -0,0 +1,45 @@
+package ru.craftysoft.platform.gateway.service.client.grpc;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyTracker {
+
+    private static final int SIZE = 128;
+    private static final int MINIMUM_SAMPLES = 32;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final double percentile;
+    private final Timer rttTimer;
+    private final long[] samples = new long[SIZE];
+    private int index;
+    private int count;
+    private volatile long percentileNanos = -1;
+
+    public LatencyTracker(double percentile, Timer rttTimer) {
+        this.percentile = percentile;
+        this.rttTimer = rttTimer;
+    }
+
+    public void recordFailure(long nanos) {
+        rttTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized void record(long nanos) {
+        rttTimer.record(nanos, TimeUnit.NANOSECONDS);
+        samples[index] = nanos;
+        index = (index + 1) % SIZE;
+        count = Math.min(count + 1, SIZE);
+        if (count >= MINIMUM_SAMPLES && index % RECOMPUTE_EVERY == 0) {
+            var sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[Math.min(count - 1, (int) (percentile * count))];
+        }
+    }
+
+    public long percentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -1,37 +1,186 @@
 package ru.craftysoft.platform.gateway.service.client.grpc;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Descriptors;
-import io.quarkus.cache.CacheKey;
-import io.quarkus.cache.CacheResult;
+import io.grpc.reflection.v1alpha.ServerReflectionResponse;
+import io.quarkus.runtime.StartupEvent;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import ru.craftysoft.platform.gateway.builder.dynamic.FileDescriptorResolver;
 import ru.craftysoft.platform.gateway.builder.reflection.ServerReflectionRequestBuilder;
+import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
+import ru.craftysoft.platform.gateway.service.snapshot.DescriptorSnapshotStore;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @ApplicationScoped
 @RequiredArgsConstructor
 public class ReflectionGrpcClientAdapter {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReflectionGrpcClientAdapter.class);
+
     private final Map<String, ReflectionGrpcClient> reflectionClients;
     private final ServerReflectionRequestBuilder requestBuilder;
     private final FileDescriptorResolver fileDescriptorResolver;
+    private final GrpcClientConfigurationMap configurationMap;
+    private final DescriptorSnapshotStore snapshotStore;
+    private final GatewayMetrics metrics;
+
+    private final Map<ServiceKey, ServiceDescriptorHolder> holders = new ConcurrentHashMap<>();
+
+    void onStart(@Observes StartupEvent event) {
+        configurationMap.services().forEach((serverName, configuration) -> holders
+                .computeIfAbsent(new ServiceKey(serverName, configuration.serviceName()), ServiceDescriptorHolder::new)
+                .refreshInBackground()
+        );
+    }
 
     public Uni<Descriptors.FileDescriptor> serverReflectionInfo(String serverName, String serviceName) {
         var serviceKey = new ServiceKey(serverName, serviceName);
-        return serverReflectionInfo(serviceKey);
+        var holder = holders.computeIfAbsent(serviceKey, ServiceDescriptorHolder::new);
+        var current = holder.current;
+        if (current == null) {
+            metrics.reflectionCacheMiss();
+            return Uni.createFrom().completionStage(holder.refresh());
+        }
+        metrics.reflectionCacheHit();
+        if (System.nanoTime() - holder.nextRefreshAt >= 0) {
+            holder.refreshInBackground();
+        }
+        return Uni.createFrom().item(current.fileDescriptor());
     }
 
-    @CacheResult(cacheName = "server-reflection-info")
-    Uni<Descriptors.FileDescriptor> serverReflectionInfo(@CacheKey ServiceKey serviceKey) {
-        var serverReflectionClient = reflectionClients.get(serviceKey.serverName);
-        var request = requestBuilder.build(serviceKey.serviceName);
-        return serverReflectionClient.serverReflectionInfo(request)
-                .map(fileDescriptorResolver::resolve);
+    public void refreshAll() {
+        holders.values().forEach(ServiceDescriptorHolder::refreshInBackground);
+    }
+
+    private class ServiceDescriptorHolder {
+
+        private final ServiceKey serviceKey;
+        private final long refreshInterval;
+        private final AtomicReference<CompletableFuture<Descriptors.FileDescriptor>> inFlight = new AtomicReference<>();
+        private volatile DescriptorVersion current;
+        private volatile long nextRefreshAt;
+
+        private ServiceDescriptorHolder(ServiceKey serviceKey) {
+            this.serviceKey = serviceKey;
+            this.refreshInterval = TimeUnit.MILLISECONDS.toNanos(
+                    configurationMap.services().get(serviceKey.serverName()).reflectionRefreshInterval()
+            );
+            this.current = loadSnapshot();
+            this.nextRefreshAt = System.nanoTime();
+        }
+
+        private DescriptorVersion loadSnapshot() {
+            try {
+                return snapshotStore.load(serviceKey.serverName(), serviceKey.serviceName())
+                        .map(fileDescriptorProtos -> {
+                            logger.info("Дескриптор сервиса {} загружен из снимка", serviceKey.serviceName());
+                            return new DescriptorVersion(fileDescriptorResolver.resolve(fileDescriptorProtos), hash(fileDescriptorProtos));
+                        })
+                        .orElse(null);
+            } catch (RuntimeException e) {
+                logger.warn("Снимок дескриптора сервиса {} повреждён", serviceKey.serviceName(), e);
+                return null;
+            }
+        }
+
+        private void refreshInBackground() {
+            nextRefreshAt = System.nanoTime() + refreshInterval;
+            refresh().whenComplete((fileDescriptor, throwable) -> {
+                if (throwable != null) {
+                    logger.warn("Не удалось обновить дескриптор сервиса {}, используется текущая версия", serviceKey.serviceName(), throwable);
+                }
+            });
+        }
+
+        private CompletableFuture<Descriptors.FileDescriptor> refresh() {
+            var promise = new CompletableFuture<Descriptors.FileDescriptor>();
+            var existing = inFlight.compareAndExchange(null, promise);
+            if (existing != null) {
+                return existing;
+            }
+            var serverReflectionClient = reflectionClients.get(serviceKey.serverName());
+            var request = requestBuilder.build(serviceKey.serviceName());
+            var startedAt = System.nanoTime();
+            serverReflectionClient.serverReflectionInfo(request)
+                    .map(this::swap)
+                    .onTermination().invoke(() -> metrics.reflectionRefreshTimer(serviceKey.serverName())
+                            .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS))
+                    .subscribe().with(
+                            fileDescriptor -> {
+                                inFlight.set(null);
+                                promise.complete(fileDescriptor);
+                            },
+                            throwable -> {
+                                inFlight.set(null);
+                                var fallback = current == null ? loadSnapshot() : null;
+                                if (fallback != null) {
+                                    current = fallback;
+                                    promise.complete(fallback.fileDescriptor());
+                                } else {
+                                    promise.completeExceptionally(throwable);
+                                }
+                            }
+                    );
+            return promise;
+        }
+
+        private Descriptors.FileDescriptor swap(ServerReflectionResponse response) {
+            var fileDescriptorProtos = response.getFileDescriptorResponse().getFileDescriptorProtoList();
+            var hash = hash(fileDescriptorProtos);
+            var previous = current;
+            nextRefreshAt = System.nanoTime() + refreshInterval;
+            if (previous != null && Arrays.equals(previous.hash(), hash)) {
+                return previous.fileDescriptor();
+            }
+            var fileDescriptor = fileDescriptorResolver.resolve(fileDescriptorProtos);
+            current = new DescriptorVersion(fileDescriptor, hash);
+            Infrastructure.getDefaultWorkerPool().execute(() -> saveSnapshot(fileDescriptorProtos));
+            if (previous != null) {
+                logger.info("Дескриптор сервиса {} изменился, применена новая версия", serviceKey.serviceName());
+            }
+            return fileDescriptor;
+        }
+
+        private void saveSnapshot(List<ByteString> fileDescriptorProtos) {
+            try {
+                snapshotStore.save(serviceKey.serverName(), serviceKey.serviceName(), fileDescriptorProtos);
+            } catch (RuntimeException e) {
+                logger.warn("Не удалось сохранить снимок дескриптора сервиса {}", serviceKey.serviceName(), e);
+            }
+        }
+    }
+
+    private static byte[] hash(Iterable<ByteString> fileDescriptorProtos) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (var fileDescriptorProto : fileDescriptorProtos) {
+                digest.update(fileDescriptorProto.asReadOnlyByteBuffer());
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private record ServiceKey(String serverName, String serviceName) {
     }
+
+    private record DescriptorVersion(Descriptors.FileDescriptor fileDescriptor, byte[] hash) {
+    }
 }
@@ -0,0 +1,112 @@
+package ru.craftysoft.platform.gateway.service.client.grpc;
+
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ServerStreamingPublisher<ReqT, RespT> implements Publisher<RespT> {
+
+    private final ClientCall<ReqT, RespT> call;
+    private final ReqT request;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    public ServerStreamingPublisher(ClientCall<ReqT, RespT> call, ReqT request) {
+        this.call = call;
+        this.request = request;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super RespT> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new CallSubscription(null));
+            subscriber.onError(new IllegalStateException("Поток уже имеет подписчика"));
+            return;
+        }
+        var subscription = new CallSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        var callerContext = CallerContext.capture();
+        call.start(new ClientCall.Listener<>() {
+            @Override
+            public void onMessage(RespT message) {
+                callerContext.run(() -> subscriber.onNext(message));
+            }
+
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                if (status.isOk()) {
+                    callerContext.run(subscriber::onComplete);
+                } else {
+                    callerContext.run(() -> subscriber.onError(status.asRuntimeException(trailers)));
+                }
+            }
+        }, new Metadata());
+        call.sendMessage(request);
+        call.halfClose();
+        subscription.started();
+    }
+
+    private class CallSubscription implements Subscription {
+
+        private final Subscriber<? super RespT> subscriber;
+        private boolean started;
+        private boolean cancelled;
+        private long pendingDemand;
+
+        private CallSubscription(Subscriber<? super RespT> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (subscriber == null) {
+                return;
+            }
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Количество запрашиваемых элементов должно быть положительным"));
+                return;
+            }
+            synchronized (this) {
+                if (!started) {
+                    pendingDemand = Math.min(pendingDemand + n, Integer.MAX_VALUE);
+                    return;
+                }
+            }
+            call.request((int) Math.min(n, Integer.MAX_VALUE));
+        }
+
+        @Override
+        public void cancel() {
+            if (subscriber == null) {
+                return;
+            }
+            synchronized (this) {
+                if (!started) {
+                    cancelled = true;
+                    return;
+                }
+            }
+            call.cancel("Подписка отменена", null);
+        }
+
+        private void started() {
+            long demand;
+            boolean cancel;
+            synchronized (this) {
+                started = true;
+                demand = pendingDemand;
+                cancel = cancelled;
+            }
+            if (cancel) {
+                call.cancel("Подписка отменена", null);
+            } else if (demand > 0) {
+                call.request((int) demand);
+            }
+        }
+    }
+}
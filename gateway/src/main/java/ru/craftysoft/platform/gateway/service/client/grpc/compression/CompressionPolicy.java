@@ -0,0 +1,9 @@
+package ru.craftysoft.platform.gateway.service.client.grpc.compression;
+
+public enum CompressionPolicy {
+    NONE,
+    GZIP,
+    SNAPPY,
+    ZSTD,
+    ADAPTIVE
+}
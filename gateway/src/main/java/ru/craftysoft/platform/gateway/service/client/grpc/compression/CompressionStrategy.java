@@ -0,0 +1,363 @@
+package ru.craftysoft.platform.gateway.service.client.grpc.compression;
+
+import com.google.protobuf.DynamicMessage;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static io.grpc.Metadata.ASCII_STRING_MARSHALLER;
+
+public class CompressionStrategy {
+
+    public static final Metadata.Key<String> RESPONSE_ENCODING_HEADER = Metadata.Key.of("x-response-encoding", ASCII_STRING_MARSHALLER);
+    private static final Metadata.Key<String> ACCEPT_ENCODING_HEADER = Metadata.Key.of("grpc-accept-encoding", ASCII_STRING_MARSHALLER);
+    private static final Metadata.Key<String> ENCODING_HEADER = Metadata.Key.of("grpc-encoding", ASCII_STRING_MARSHALLER);
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionStrategy.class);
+    private static final int SAMPLE_RATE = 16;
+    private static final ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+
+    private static final Map<CompressionPolicy, Codec> CODECS = Map.of(
+            CompressionPolicy.GZIP, new Codec.Gzip(),
+            CompressionPolicy.SNAPPY, new SnappyCodec(),
+            CompressionPolicy.ZSTD, new ZstdCodec()
+    );
+
+    private final CompressionPolicy policy;
+    private final Codec codec;
+    private final int threshold;
+    private final double minRatio;
+    private final Map<String, MethodStats> statsByMethods = new ConcurrentHashMap<>();
+    private volatile String acceptEncodingHeader;
+    private volatile boolean negotiated;
+
+    public CompressionStrategy(GrpcClientConfigurationMap.CompressionConfiguration configuration) {
+        this.policy = configuration.policy();
+        var codecPolicy = policy == CompressionPolicy.ADAPTIVE ? configuration.adaptiveCodec() : policy;
+        this.codec = CODECS.get(codecPolicy);
+        if (policy != CompressionPolicy.NONE && codec == null) {
+            throw new IllegalArgumentException("Некорректный алгоритм сжатия '%s'".formatted(codecPolicy));
+        }
+        this.threshold = configuration.threshold();
+        this.minRatio = configuration.minRatio();
+    }
+
+    public static CompressorRegistry compressorRegistry() {
+        var registry = CompressorRegistry.newEmptyInstance();
+        CODECS.values().forEach(registry::register);
+        return registry;
+    }
+
+    public static DecompressorRegistry decompressorRegistry() {
+        var registry = DecompressorRegistry.emptyInstance();
+        for (var codec : CODECS.values()) {
+            registry = registry.with(codec, true);
+        }
+        return registry.with(Codec.Identity.NONE, false);
+    }
+
+    public CallOptions apply(CallOptions callOptions, MethodDescriptor<?, ?> method, DynamicMessage request) {
+        if (policy == CompressionPolicy.NONE) {
+            return callOptions;
+        }
+        var size = request.getSerializedSize();
+        if (size < threshold) {
+            return callOptions;
+        }
+        var stats = stats(method).request;
+        if (stats.observe(size) % SAMPLE_RATE == 0) {
+            stats.sample(request::toByteArray, codec);
+        }
+        if (!negotiated || policy == CompressionPolicy.ADAPTIVE && stats.ratio() < minRatio) {
+            return callOptions;
+        }
+        stats.compressedCalls.increment();
+        return callOptions.withCompression(codec.getMessageEncoding());
+    }
+
+    public ClientInterceptor interceptor() {
+        return new NegotiatingInterceptor();
+    }
+
+    public Map<String, MethodCompressionStats> stats() {
+        var encoding = policy == CompressionPolicy.NONE ? Codec.Identity.NONE.getMessageEncoding() : codec.getMessageEncoding();
+        return statsByMethods.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> new MethodCompressionStats(
+                        encoding,
+                        negotiated,
+                        entry.getValue().request.toStats(),
+                        entry.getValue().response.toStats()
+                )));
+    }
+
+    private MethodStats stats(MethodDescriptor<?, ?> method) {
+        return statsByMethods.computeIfAbsent(method.getFullMethodName(), name -> new MethodStats());
+    }
+
+    private boolean compressResponses(DirectionStats stats) {
+        if (!negotiated || stats.averageSize() < threshold) {
+            return false;
+        }
+        return policy != CompressionPolicy.ADAPTIVE || stats.ratio() >= minRatio;
+    }
+
+    private void advertised(String header) {
+        if (header == null || header.equals(acceptEncodingHeader)) {
+            return;
+        }
+        var encodings = Arrays.stream(header.split(","))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        negotiated = encodings.contains(codec.getMessageEncoding());
+        acceptEncodingHeader = header;
+    }
+
+    private class NegotiatingInterceptor implements ClientInterceptor {
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+            if (policy == CompressionPolicy.NONE) {
+                return next.newCall(method, callOptions);
+            }
+            var methodStats = stats(method);
+            var stats = methodStats.response;
+            var sizes = new WireSizes(methodStats, Objects.equals(callOptions.getCompressor(), codec.getMessageEncoding()));
+            var call = next.newCall(method, callOptions.withStreamTracerFactory(sizes));
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    if (compressResponses(stats)) {
+                        headers.put(RESPONSE_ENCODING_HEADER, codec.getMessageEncoding());
+                    }
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onHeaders(Metadata responseHeaders) {
+                            advertised(responseHeaders.get(ACCEPT_ENCODING_HEADER));
+                            if (Objects.equals(responseHeaders.get(ENCODING_HEADER), codec.getMessageEncoding())) {
+                                sizes.responseCompressed = true;
+                                stats.compressedCalls.increment();
+                            }
+                            super.onHeaders(responseHeaders);
+                        }
+
+                        @Override
+                        public void onMessage(RespT message) {
+                            if (message instanceof byte[] bytes
+                                    && stats.observe(bytes.length) % SAMPLE_RATE == 0
+                                    && bytes.length >= threshold
+                                    && !sizes.responseCompressed) {
+                                stats.sample(() -> bytes, codec);
+                            }
+                            super.onMessage(message);
+                        }
+                    }, headers);
+                }
+            };
+        }
+    }
+
+    private static class MethodStats {
+        private final DirectionStats request = new DirectionStats();
+        private final DirectionStats response = new DirectionStats();
+    }
+
+    private static class WireSizes extends ClientStreamTracer.Factory {
+        private final MethodStats stats;
+        private final boolean requestCompressed;
+        private volatile boolean responseCompressed;
+
+        private WireSizes(MethodStats stats, boolean requestCompressed) {
+            this.stats = stats;
+            this.requestCompressed = requestCompressed;
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            return new ClientStreamTracer() {
+                private final AtomicLong outboundWire = new AtomicLong();
+                private final AtomicLong outboundUncompressed = new AtomicLong();
+                private final AtomicLong inboundWire = new AtomicLong();
+                private final AtomicLong inboundUncompressed = new AtomicLong();
+
+                @Override
+                public void outboundWireSize(long bytes) {
+                    outboundWire.addAndGet(bytes);
+                }
+
+                @Override
+                public void outboundUncompressedSize(long bytes) {
+                    outboundUncompressed.addAndGet(bytes);
+                }
+
+                @Override
+                public void inboundWireSize(long bytes) {
+                    inboundWire.addAndGet(bytes);
+                }
+
+                @Override
+                public void inboundUncompressedSize(long bytes) {
+                    inboundUncompressed.addAndGet(bytes);
+                }
+
+                @Override
+                public void streamClosed(Status status) {
+                    if (requestCompressed) {
+                        stats.request.recordWire(outboundUncompressed.get(), outboundWire.get());
+                    }
+                    if (responseCompressed) {
+                        stats.response.recordWire(inboundUncompressed.get(), inboundWire.get());
+                    }
+                }
+            };
+        }
+    }
+
+    private static class DirectionStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder compressedCalls = new LongAdder();
+        private final LongAdder wireUncompressedBytes = new LongAdder();
+        private final LongAdder wireCompressedBytes = new LongAdder();
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder sampledBytes = new LongAdder();
+        private final LongAdder sampledCompressedBytes = new LongAdder();
+        private final LongAdder sampledCompressionCpuNanos = new LongAdder();
+        private final LongAdder sampledDecompressionCpuNanos = new LongAdder();
+        private final AtomicBoolean sampling = new AtomicBoolean();
+
+        private long observe(int size) {
+            var call = calls.sum();
+            calls.increment();
+            bytes.add(size);
+            return call;
+        }
+
+        private void recordWire(long uncompressedSize, long wireSize) {
+            if (wireSize > 0) {
+                wireUncompressedBytes.add(uncompressedSize);
+                wireCompressedBytes.add(wireSize);
+            }
+        }
+
+        private void sample(Supplier<byte[]> payload, Codec codec) {
+            if (!sampling.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Infrastructure.getDefaultWorkerPool().execute(() -> {
+                    try {
+                        sampleNow(payload.get(), codec);
+                    } catch (RuntimeException e) {
+                        logger.warn("Ошибка при оценке сжатия", e);
+                    } finally {
+                        sampling.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                sampling.set(false);
+                throw e;
+            }
+        }
+
+        private void sampleNow(byte[] payload, Codec codec) {
+            var compressed = new ByteArrayOutputStream(Math.max(32, payload.length / 2));
+            var compressionStart = cpuTime();
+            try (var output = codec.compress(compressed)) {
+                output.write(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            var compressionCpuNanos = cpuTime() - compressionStart;
+            var decompressionStart = cpuTime();
+            try (InputStream input = codec.decompress(new ByteArrayInputStream(compressed.toByteArray()))) {
+                input.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            var decompressionCpuNanos = cpuTime() - decompressionStart;
+            sampledCompressionCpuNanos.add(compressionCpuNanos);
+            sampledDecompressionCpuNanos.add(decompressionCpuNanos);
+            sampledBytes.add(payload.length);
+            sampledCompressedBytes.add(compressed.size());
+            samples.increment();
+        }
+
+        private double ratio() {
+            var wire = wireCompressedBytes.sum();
+            if (wire > 0) {
+                return (double) wireUncompressedBytes.sum() / wire;
+            }
+            var compressed = sampledCompressedBytes.sum();
+            return compressed == 0 ? 0 : (double) sampledBytes.sum() / compressed;
+        }
+
+        private long averageSize() {
+            var count = calls.sum();
+            return count == 0 ? 0 : bytes.sum() / count;
+        }
+
+        private DirectionCompressionStats toStats() {
+            var sampled = samples.sum();
+            return new DirectionCompressionStats(
+                    calls.sum(),
+                    compressedCalls.sum(),
+                    ratio(),
+                    sampled,
+                    sampled == 0 ? 0 : sampledCompressionCpuNanos.sum() / sampled,
+                    sampled == 0 ? 0 : sampledDecompressionCpuNanos.sum() / sampled
+            );
+        }
+
+        private static long cpuTime() {
+            return threadMxBean.isCurrentThreadCpuTimeSupported()
+                    ? threadMxBean.getCurrentThreadCpuTime()
+                    : System.nanoTime();
+        }
+    }
+
+    public record MethodCompressionStats(String encoding,
+                                         boolean negotiated,
+                                         DirectionCompressionStats request,
+                                         DirectionCompressionStats response) {
+    }
+
+    public record DirectionCompressionStats(long calls,
+                                            long compressedCalls,
+                                            double ratio,
+                                            long samples,
+                                            long compressionCpuNanosPerSample,
+                                            long decompressionCpuNanosPerSample) {
+    }
+}
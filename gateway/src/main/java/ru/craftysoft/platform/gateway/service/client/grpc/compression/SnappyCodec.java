@@ -0,0 +1,27 @@
+package ru.craftysoft.platform.gateway.service.client.grpc.compression;
+
+import io.grpc.Codec;
+import org.xerial.snappy.SnappyFramedInputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class SnappyCodec implements Codec {
+
+    @Override
+    public String getMessageEncoding() {
+        return "snappy";
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+        return new SnappyFramedOutputStream(os);
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+        return new SnappyFramedInputStream(is);
+    }
+}
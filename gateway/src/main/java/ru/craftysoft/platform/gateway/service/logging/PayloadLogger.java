@@ -0,0 +1,221 @@
+package ru.craftysoft.platform.gateway.service.logging;
+
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.MessageOrBuilder;
+import com.google.protobuf.util.JsonFormat;
+import graphql.ExecutionResult;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.json.jackson.DatabindCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.craftysoft.platform.gateway.configuration.property.PayloadLoggingConfigurationMap;
+import ru.craftysoft.platform.gateway.service.metrics.GatewayMetrics;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Optional.ofNullable;
+
+@ApplicationScoped
+public class PayloadLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayloadLogger.class);
+    private static final JsonFormat.Printer printer = JsonFormat.printer();
+
+    private final PayloadLoggingConfigurationMap configuration;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Thread worker;
+
+    public PayloadLogger(PayloadLoggingConfigurationMap configuration, GatewayMetrics metrics) {
+        this.configuration = configuration;
+        this.queue = new ArrayBlockingQueue<>(configuration.queueCapacity());
+        metrics.bindPayloadLogger(this);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        var thread = new Thread(this::drain, "payload-logger");
+        thread.setDaemon(true);
+        thread.start();
+        worker = thread;
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        ofNullable(worker).ifPresent(Thread::interrupt);
+    }
+
+    public boolean sampled(String operation) {
+        var rate = configuration.sampleRatesByOperations().getOrDefault(operation, configuration.sampleRate());
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public void debug(Logger target, String format, String operation, Object payload) {
+        offer(new Entry(target, false, format, operation, payload, estimateSize(payload)));
+    }
+
+    public void trace(Logger target, String format, String operation, Object payload) {
+        offer(new Entry(target, true, format, operation, payload, estimateSize(payload)));
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    public long queuedBytes() {
+        return queuedBytes.get();
+    }
+
+    private void offer(Entry entry) {
+        if (queuedBytes.addAndGet(entry.estimatedSize()) > configuration.queueCapacityBytes()) {
+            queuedBytes.addAndGet(-entry.estimatedSize());
+            dropped.increment();
+            return;
+        }
+        if (!queue.offer(entry)) {
+            queuedBytes.addAndGet(-entry.estimatedSize());
+            dropped.increment();
+        }
+    }
+
+    private long estimateSize(Object payload) {
+        if (payload instanceof MessageLite message) {
+            return message.getSerializedSize();
+        }
+        if (payload instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (payload instanceof RawMessage message) {
+            return message.bytes().length;
+        }
+        if (payload instanceof CharSequence text) {
+            return text.length();
+        }
+        return configuration.maxPayloadSize();
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                var entry = queue.take();
+                queuedBytes.addAndGet(-entry.estimatedSize());
+                write(entry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Ошибка при записи сообщения в лог", e);
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        var rendered = render(entry.payload());
+        if (entry.trace()) {
+            entry.target().trace(entry.format(), entry.operation(), rendered);
+        } else {
+            entry.target().debug(entry.format(), entry.operation(), rendered);
+        }
+    }
+
+    private String render(Object payload) {
+        if (payload instanceof byte[] bytes) {
+            return "<%d байт>".formatted(bytes.length);
+        }
+        var writer = new LimitedWriter(configuration.maxPayloadSize());
+        try {
+            if (payload instanceof MessageOrBuilder message) {
+                printer.appendTo(message, writer);
+            } else if (payload instanceof RawMessage message) {
+                printer.appendTo(DynamicMessage.parseFrom(message.descriptor(), message.bytes()), writer);
+            } else if (payload instanceof ExecutionResult executionResult) {
+                var specification = executionResult.toSpecification();
+                if (specification == null) {
+                    return null;
+                }
+                DatabindCodec.mapper().writeValue(writer, specification);
+            } else {
+                writer.write(String.valueOf(payload));
+            }
+            return writer.toString();
+        } catch (Exception e) {
+            if (writer.truncated()) {
+                return writer + "...(обрезано по %d символов)".formatted(configuration.maxPayloadSize());
+            }
+            logger.error("Ошибка при преобразовании сообщения в JSON", e);
+            return null;
+        }
+    }
+
+    private record Entry(Logger target, boolean trace, String format, String operation, Object payload, long estimatedSize) {
+    }
+
+    private static class LimitedWriter extends Writer {
+        private final StringBuilder buffer = new StringBuilder();
+        private final int limit;
+        private boolean truncated;
+
+        private LimitedWriter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            var remaining = limit - buffer.length();
+            if (length > remaining) {
+                buffer.append(chars, offset, remaining);
+                truncated = true;
+                throw new LimitReachedException();
+            }
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String value, int offset, int length) throws IOException {
+            var remaining = limit - buffer.length();
+            if (length > remaining) {
+                buffer.append(value, offset, offset + remaining);
+                truncated = true;
+                throw new LimitReachedException();
+            }
+            buffer.append(value, offset, offset + length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private boolean truncated() {
+            return truncated;
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+
+    private static class LimitReachedException extends IOException {
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
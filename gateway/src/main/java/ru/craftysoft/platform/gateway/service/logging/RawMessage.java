@@ -0,0 +1,6 @@
+package ru.craftysoft.platform.gateway.service.logging;
+
+import com.google.protobuf.Descriptors;
+
+public record RawMessage(Descriptors.Descriptor descriptor, byte[] bytes) {
+}
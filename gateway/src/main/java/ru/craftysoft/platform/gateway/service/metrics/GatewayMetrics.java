@@ -0,0 +1,179 @@
+package ru.craftysoft.platform.gateway.service.metrics;
+
+import io.grpc.MethodDescriptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.craftysoft.platform.gateway.service.client.grpc.ConcurrencyLimiter;
+import ru.craftysoft.platform.gateway.service.logging.PayloadLogger;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@ApplicationScoped
+public class GatewayMetrics {
+
+    private static final Duration MINIMUM_EXPECTED = Duration.ofNanos(10_000);
+    private static final Duration MAXIMUM_EXPECTED = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry;
+    private final Timer parseTimer;
+    private final Timer validationTimer;
+    private final Timer executionTimer;
+    private final Counter reflectionHits;
+    private final Counter reflectionMisses;
+    private final MeterFamily<Timer> reflectionRefreshTimers;
+    private final MeterFamily<Timer> requestBuildTimers;
+    private final MeterFamily<Timer> responseBuildTimers;
+    private final MeterFamily<Timer> rttTimers;
+    private final MeterFamily<MarshallingMeters> requestMarshallingMeters;
+    private final MeterFamily<MarshallingMeters> responseMarshallingMeters;
+
+    public GatewayMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.parseTimer = phaseTimer("parse");
+        this.validationTimer = phaseTimer("validate");
+        this.executionTimer = phaseTimer("execute");
+        this.reflectionHits = Counter.builder("gateway.reflection.cache").tag("result", "hit").register(meterRegistry);
+        this.reflectionMisses = Counter.builder("gateway.reflection.cache").tag("result", "miss").register(meterRegistry);
+        this.reflectionRefreshTimers = new MeterFamily<>(service -> timer("gateway.reflection.refresh").tag("service", service).register(meterRegistry));
+        this.requestBuildTimers = new MeterFamily<>(field -> timer("gateway.request.build").tag("field", field).register(meterRegistry));
+        this.responseBuildTimers = new MeterFamily<>(field -> timer("gateway.response.build").tag("field", field).register(meterRegistry));
+        this.rttTimers = new MeterFamily<>(fullMethodName -> timer("gateway.grpc.rtt")
+                .tag("service", serviceName(fullMethodName))
+                .tag("method", fullMethodName)
+                .register(meterRegistry));
+        this.requestMarshallingMeters = new MeterFamily<>(fullMethodName -> marshallingMeters(fullMethodName, "request"));
+        this.responseMarshallingMeters = new MeterFamily<>(fullMethodName -> marshallingMeters(fullMethodName, "response"));
+    }
+
+    public Timer parseTimer() {
+        return parseTimer;
+    }
+
+    public Timer validationTimer() {
+        return validationTimer;
+    }
+
+    public Timer executionTimer() {
+        return executionTimer;
+    }
+
+    public void reflectionCacheHit() {
+        reflectionHits.increment();
+    }
+
+    public void reflectionCacheMiss() {
+        reflectionMisses.increment();
+    }
+
+    public Timer reflectionRefreshTimer(String serverName) {
+        return reflectionRefreshTimers.get(serverName);
+    }
+
+    public Timer requestBuildTimer(String field) {
+        return requestBuildTimers.get(field);
+    }
+
+    public Timer responseBuildTimer(String field) {
+        return responseBuildTimers.get(field);
+    }
+
+    public Timer rttTimer(String fullMethodName) {
+        return rttTimers.get(fullMethodName);
+    }
+
+    public MarshallingMeters requestMarshallingMeters(String fullMethodName) {
+        return requestMarshallingMeters.get(fullMethodName);
+    }
+
+    public MarshallingMeters responseMarshallingMeters(String fullMethodName) {
+        return responseMarshallingMeters.get(fullMethodName);
+    }
+
+    public void bindConcurrencyLimiter(String serverName, ConcurrencyLimiter limiter) {
+        Gauge.builder("gateway.concurrency.limit", limiter, l -> l.stats().limit())
+                .tag("service", serverName)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in.flight", limiter, l -> l.stats().inFlight())
+                .tag("service", serverName)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.concurrency.rejected", limiter, l -> l.stats().rejected())
+                .tag("service", serverName)
+                .register(meterRegistry);
+    }
+
+    public void bindPayloadLogger(PayloadLogger payloadLogger) {
+        Gauge.builder("gateway.payload.log.queued", payloadLogger, PayloadLogger::queued)
+                .register(meterRegistry);
+        Gauge.builder("gateway.payload.log.queued.bytes", payloadLogger, PayloadLogger::queuedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.payload.log.dropped", payloadLogger, PayloadLogger::dropped)
+                .register(meterRegistry);
+    }
+
+    private Timer phaseTimer(String phase) {
+        return timer("gateway.graphql.phase").tag("phase", phase).register(meterRegistry);
+    }
+
+    private MarshallingMeters marshallingMeters(String fullMethodName, String direction) {
+        var timer = timer("gateway.grpc.marshalling")
+                .tag("method", fullMethodName)
+                .tag("direction", direction)
+                .register(meterRegistry);
+        var size = DistributionSummary.builder("gateway.grpc.message.size")
+                .baseUnit("bytes")
+                .tag("method", fullMethodName)
+                .tag("direction", direction)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(16.0)
+                .maximumExpectedValue(16.0 * 1024 * 1024)
+                .register(meterRegistry);
+        return new MarshallingMeters(timer, size);
+    }
+
+    private static Timer.Builder timer(String name) {
+        return Timer.builder(name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MINIMUM_EXPECTED)
+                .maximumExpectedValue(MAXIMUM_EXPECTED);
+    }
+
+    private static String serviceName(String fullMethodName) {
+        var serviceName = MethodDescriptor.extractFullServiceName(fullMethodName);
+        return serviceName != null ? serviceName : fullMethodName;
+    }
+
+    public record MarshallingMeters(Timer timer, DistributionSummary size) {
+    }
+
+    private static class MeterFamily<T> {
+
+        private static final int MAX_KEYS = 512;
+        private static final String OVERFLOW_KEY = "other";
+
+        private final Map<String, T> meters = new ConcurrentHashMap<>();
+        private final Function<String, T> factory;
+
+        private MeterFamily(Function<String, T> factory) {
+            this.factory = factory;
+        }
+
+        private T get(String key) {
+            var meter = meters.get(key);
+            if (meter != null) {
+                return meter;
+            }
+            return meters.size() < MAX_KEYS
+                    ? meters.computeIfAbsent(key, factory)
+                    : meters.computeIfAbsent(OVERFLOW_KEY, factory);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.craftysoft.platform.gateway.service.snapshot;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.DescriptorProtos;
+import com.google.protobuf.WireFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+@ApplicationScoped
+public class DescriptorSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DescriptorSnapshotStore.class);
+
+    private static final int FILE_TAG = WireFormat.makeTag(
+            DescriptorProtos.FileDescriptorSet.FILE_FIELD_NUMBER,
+            WireFormat.WIRETYPE_LENGTH_DELIMITED
+    );
+
+    private final Optional<Path> directory;
+
+    public DescriptorSnapshotStore(GrpcClientConfigurationMap configurationMap) {
+        this.directory = configurationMap.reflectionSnapshotDir().map(Path::of);
+    }
+
+    public Optional<List<ByteString>> load(String serverName, String serviceName) {
+        var path = directory.map(d -> d.resolve(fileName(serverName, serviceName)));
+        if (path.isEmpty() || !Files.isRegularFile(path.get())) {
+            return Optional.empty();
+        }
+        try (var channel = FileChannel.open(path.get(), StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            var input = CodedInputStream.newInstance(buffer);
+            var fileDescriptorProtos = new ArrayList<ByteString>();
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                if (tag == FILE_TAG) {
+                    fileDescriptorProtos.add(input.readBytes());
+                } else {
+                    input.skipField(tag);
+                }
+            }
+            return fileDescriptorProtos.isEmpty()
+                    ? Optional.empty()
+                    : Optional.of(fileDescriptorProtos);
+        } catch (IOException e) {
+            logger.warn("Не удалось прочитать снимок дескриптора {}", path.get(), e);
+            return Optional.empty();
+        }
+    }
+
+    public void save(String serverName, String serviceName, List<ByteString> fileDescriptorProtos) {
+        if (directory.isEmpty()) {
+            return;
+        }
+        var path = directory.get().resolve(fileName(serverName, serviceName));
+        try {
+            Files.createDirectories(directory.get());
+            var temporary = Files.createTempFile(directory.get(), path.getFileName().toString(), ".tmp");
+            try (var output = Files.newOutputStream(temporary)) {
+                var codedOutput = CodedOutputStream.newInstance(output);
+                for (var fileDescriptorProto : fileDescriptorProtos) {
+                    codedOutput.writeBytes(DescriptorProtos.FileDescriptorSet.FILE_FIELD_NUMBER, fileDescriptorProto);
+                }
+                codedOutput.flush();
+            }
+            Files.move(temporary, path, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fileName(String serverName, String serviceName) {
+        return serverName + "@" + serviceName + ".pb";
+    }
+}
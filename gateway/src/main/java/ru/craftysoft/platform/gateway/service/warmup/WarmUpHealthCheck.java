@@ -0,0 +1,32 @@
+package ru.craftysoft.platform.gateway.service.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import javax.enterprise.context.ApplicationScoped;
+
+@Readiness
+@ApplicationScoped
+@RequiredArgsConstructor
+public class WarmUpHealthCheck implements HealthCheck {
+
+    private final WarmUpService warmUpService;
+
+    @Override
+    public HealthCheckResponse call() {
+        var pendingServices = warmUpService.pendingServices();
+        var failedStages = warmUpService.failedStages();
+        var builder = HealthCheckResponse.named("warm-up")
+                .status(warmUpService.completed() && pendingServices.isEmpty());
+        warmUpService.stageDurations().forEach(builder::withData);
+        if (!pendingServices.isEmpty()) {
+            builder.withData("pendingServices", String.join(",", pendingServices));
+        }
+        if (!failedStages.isEmpty()) {
+            builder.withData("failedStages", String.join(",", failedStages));
+        }
+        return builder.build();
+    }
+}
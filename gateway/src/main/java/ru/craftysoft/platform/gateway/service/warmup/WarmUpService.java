@@ -0,0 +1,201 @@
+package ru.craftysoft.platform.gateway.service.warmup;
+
+import com.google.protobuf.Descriptors;
+import graphql.ExecutionInput;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.craftysoft.platform.gateway.builder.dynamic.InvocationPlanRegistry;
+import ru.craftysoft.platform.gateway.configuration.SchemaRegistry;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+import ru.craftysoft.platform.gateway.configuration.property.GrpcClientConfigurationMap;
+import ru.craftysoft.platform.gateway.configuration.property.WarmUpConfigurationMap;
+import ru.craftysoft.platform.gateway.resolver.JoinResolver;
+import ru.craftysoft.platform.gateway.service.client.grpc.ReflectionGrpcClientAdapter;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+public class WarmUpService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpService.class);
+
+    private final WarmUpConfigurationMap warmUpConfiguration;
+    private final GrpcClientConfigurationMap configurationMap;
+    private final GraphQlServicesByMethodsMap graphQlServersByMethods;
+    private final ReflectionGrpcClientAdapter reflectionGrpcClientAdapter;
+    private final InvocationPlanRegistry invocationPlanRegistry;
+    private final SchemaRegistry schemaRegistry;
+    private final JoinResolver joinResolver;
+
+    private final Map<String, Long> stageDurations = new LinkedHashMap<>();
+    private final Set<String> pendingServices = ConcurrentHashMap.newKeySet();
+    private final Set<String> failedStages = ConcurrentHashMap.newKeySet();
+    private volatile boolean completed;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!warmUpConfiguration.enabled()) {
+            completed = true;
+            return;
+        }
+        Infrastructure.getDefaultWorkerPool().execute(this::warmUp);
+    }
+
+    public boolean completed() {
+        return completed;
+    }
+
+    public Set<String> pendingServices() {
+        return new TreeSet<>(pendingServices);
+    }
+
+    public Set<String> failedStages() {
+        return new TreeSet<>(failedStages);
+    }
+
+    public synchronized Map<String, Long> stageDurations() {
+        return new LinkedHashMap<>(stageDurations);
+    }
+
+    private void warmUp() {
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmUpConfiguration.budget());
+        try {
+            var fileDescriptors = stage("reflection", () -> reflect(deadline));
+            stage("plans", () -> buildPlans(fileDescriptors));
+            stage("queries", () -> runQueries(deadline));
+        } catch (RuntimeException e) {
+            logger.warn("Прогрев прерван", e);
+        } finally {
+            completed = true;
+            logger.info("Прогрев завершён, длительность этапов (мс): {}", stageDurations());
+        }
+    }
+
+    private <T> T stage(String name, Supplier<T> stage) {
+        var start = System.nanoTime();
+        try {
+            return stage.get();
+        } catch (RuntimeException e) {
+            failedStages.add(name);
+            throw e;
+        } finally {
+            var duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            synchronized (this) {
+                stageDurations.put(name, duration);
+            }
+        }
+    }
+
+    private Map<String, Descriptors.FileDescriptor> reflect(long deadline) {
+        var retryInterval = Duration.ofMillis(warmUpConfiguration.retryInterval());
+        var maxRetryInterval = Duration.ofMillis(warmUpConfiguration.maxRetryInterval());
+        var futures = new LinkedHashMap<String, CompletableFuture<Descriptors.FileDescriptor>>();
+        configurationMap.services().forEach((serverName, configuration) -> {
+            pendingServices.add(serverName);
+            futures.put(serverName, reflectionGrpcClientAdapter.serverReflectionInfo(serverName, configuration.serviceName())
+                    .onFailure().invoke(e -> logger.warn("Не удалось получить дескриптор сервиса {}", serverName, e))
+                    .onFailure().retry().withBackOff(retryInterval, maxRetryInterval).indefinitely()
+                    .invoke(() -> pendingServices.remove(serverName))
+                    .subscribeAsCompletionStage());
+        });
+        var result = new HashMap<String, Descriptors.FileDescriptor>();
+        futures.forEach((serverName, future) -> {
+            try {
+                result.put(serverName, future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                logger.warn("Дескриптор сервиса {} не получен за бюджет прогрева, повторы продолжаются в фоне", serverName);
+                future.thenAcceptAsync(fileDescriptor -> buildPlans(Map.of(serverName, fileDescriptor)), Infrastructure.getDefaultWorkerPool())
+                        .exceptionally(throwable -> {
+                            logger.warn("Не удалось подготовить планы вызовов сервиса {}", serverName, throwable);
+                            return null;
+                        });
+            } catch (ExecutionException e) {
+                logger.warn("Не удалось получить дескриптор сервиса {}", serverName, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+        if (!pendingServices.isEmpty()) {
+            failedStages.add("reflection");
+        }
+        return result;
+    }
+
+    private Void buildPlans(Map<String, Descriptors.FileDescriptor> fileDescriptors) {
+        var schema = schemaRegistry.current().graphQl().getGraphQLSchema();
+        Stream.of(schema.getQueryType(), schema.getMutationType(), schema.getSubscriptionType())
+                .filter(Objects::nonNull)
+                .map(GraphQLObjectType::getFieldDefinitions)
+                .flatMap(List::stream)
+                .map(GraphQLFieldDefinition::getName)
+                .forEach(methodName -> {
+                    var serverName = graphQlServersByMethods.servicesByMethods().get(methodName);
+                    var fileDescriptor = serverName == null ? null : fileDescriptors.get(serverName);
+                    if (fileDescriptor == null) {
+                        return;
+                    }
+                    var serviceName = configurationMap.services().get(serverName).serviceName();
+                    var plan = invocationPlanRegistry.resolve(serverName, serviceName, methodName, fileDescriptor);
+                    plan.descriptorIndex().converter(plan.inputType());
+                    plan.descriptorIndex().fields(plan.outputType());
+                });
+        return null;
+    }
+
+    private Void runQueries(long deadline) {
+        var queries = warmUpConfiguration.queries().orElse(List.of());
+        for (int i = 0; i < warmUpConfiguration.iterations(); i++) {
+            for (var query : queries) {
+                var executionInput = ExecutionInput.newExecutionInput()
+                        .query(query)
+                        .dataLoaderRegistry(joinResolver.dataLoaderRegistry())
+                        .build();
+                try {
+                    var result = schemaRegistry.current().graphQl().executeAsync(executionInput)
+                            .get(remaining(deadline).toNanos(), TimeUnit.NANOSECONDS);
+                    if (!result.getErrors().isEmpty()) {
+                        logger.warn("Прогревочный запрос завершился с ошибками {}", result.getErrors());
+                    }
+                } catch (ExecutionException e) {
+                    logger.warn("Прогревочный запрос завершился с ошибкой", e.getCause());
+                } catch (TimeoutException e) {
+                    throw new IllegalStateException("Превышен бюджет прогрева", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Duration remaining(long deadline) {
+        var remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new IllegalStateException("Превышен бюджет прогрева");
+        }
+        return Duration.ofNanos(remaining);
+    }
+}
@@ -0,0 +1,425 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.TextFormat;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.UnknownFieldSet;
+import graphql.ExecutionInput;
+import graphql.GraphQL;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLList;
+import graphql.schema.idl.FieldWiringEnvironment;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.WiringFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.DirectResponseInstrumentation;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.DirectResponses;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+import ru.craftysoft.platform.gateway.resolver.DynamicMessageDataFetcher;
+import ru.craftysoft.proto.NullableBool;
+import ru.craftysoft.proto.NullableInt64;
+import ru.craftysoft.proto.NullableString;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.protobuf.NullValue.NULL_VALUE;
+import static graphql.scalars.ExtendedScalars.Date;
+import static graphql.scalars.ExtendedScalars.DateTime;
+import static graphql.scalars.ExtendedScalars.GraphQLLong;
+import static graphql.schema.idl.RuntimeWiring.newRuntimeWiring;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectResponseWriterTest {
+
+    private static final String SCHEMA = """
+            schema {
+                query: Query
+            }
+
+            type Query {
+                items: [Item]
+                item: Item
+            }
+
+            enum Status {
+                UNKNOWN
+                ACTIVE
+                ARCHIVED
+            }
+
+            type Attribute {
+                id: Long
+                value: String
+            }
+
+            type Item {
+                id: Long
+                name: String
+                int32Value: Int
+                sint32Value: Int
+                sint64Value: Long
+                fixed64Value: Long
+                sfixed32Value: Int
+                doubleValue: Float
+                floatValue: Float
+                flag: Boolean
+                status: Status
+                packedIds: [Long]
+                unpackedIds: [Long]
+                tags: [String]
+                scores: [Float]
+                comment: String
+                counter: Long
+                enabled: Boolean
+                createdAt: DateTime
+                birthDate: Date
+                main: Attribute
+                attributes: [Attribute]
+            }
+
+            scalar Long
+            scalar DateTime
+            scalar Date
+            """;
+
+    private static final String TEST_PROTO = """
+            name: "test/item.proto"
+            package: "test"
+            syntax: "proto3"
+            dependency: "google/protobuf/timestamp.proto"
+            dependency: "google/type/date.proto"
+            enum_type {
+              name: "Status"
+              value { name: "UNKNOWN" number: 0 }
+              value { name: "ACTIVE" number: 1 }
+              value { name: "ARCHIVED" number: 2 }
+            }
+            message_type {
+              name: "Attribute"
+              field { name: "id" number: 1 label: LABEL_OPTIONAL type: TYPE_INT64 }
+              field { name: "value" number: 2 label: LABEL_OPTIONAL type: TYPE_STRING }
+            }
+            message_type {
+              name: "Item"
+              field { name: "id" number: 1 label: LABEL_OPTIONAL type: TYPE_INT64 }
+              field { name: "name" number: 2 label: LABEL_OPTIONAL type: TYPE_STRING }
+              field { name: "int32Value" number: 3 label: LABEL_OPTIONAL type: TYPE_INT32 }
+              field { name: "sint32Value" number: 4 label: LABEL_OPTIONAL type: TYPE_SINT32 }
+              field { name: "sint64Value" number: 5 label: LABEL_OPTIONAL type: TYPE_SINT64 }
+              field { name: "fixed64Value" number: 6 label: LABEL_OPTIONAL type: TYPE_FIXED64 }
+              field { name: "sfixed32Value" number: 7 label: LABEL_OPTIONAL type: TYPE_SFIXED32 }
+              field { name: "doubleValue" number: 8 label: LABEL_OPTIONAL type: TYPE_DOUBLE }
+              field { name: "floatValue" number: 9 label: LABEL_OPTIONAL type: TYPE_FLOAT }
+              field { name: "flag" number: 10 label: LABEL_OPTIONAL type: TYPE_BOOL }
+              field { name: "status" number: 11 label: LABEL_OPTIONAL type: TYPE_ENUM type_name: ".test.Status" }
+              field { name: "packedIds" number: 12 label: LABEL_REPEATED type: TYPE_INT64 }
+              field { name: "unpackedIds" number: 13 label: LABEL_REPEATED type: TYPE_INT64 options { packed: false } }
+              field { name: "tags" number: 14 label: LABEL_REPEATED type: TYPE_STRING }
+              field { name: "scores" number: 15 label: LABEL_REPEATED type: TYPE_DOUBLE }
+              field { name: "comment" number: 16 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".ru.craftysoft.proto.NullableString" }
+              field { name: "counter" number: 17 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".ru.craftysoft.proto.NullableInt64" }
+              field { name: "enabled" number: 18 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".ru.craftysoft.proto.NullableBool" }
+              field { name: "createdAt" number: 19 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".google.protobuf.Timestamp" }
+              field { name: "birthDate" number: 20 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".google.type.Date" }
+              field { name: "main" number: 21 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".test.Attribute" }
+              field { name: "attributes" number: 22 label: LABEL_REPEATED type: TYPE_MESSAGE type_name: ".test.Attribute" }
+            }
+            message_type {
+              name: "ItemResponse"
+              field { name: "items" number: 1 label: LABEL_REPEATED type: TYPE_MESSAGE type_name: ".test.Item" }
+            }
+            """;
+
+    private static final String DATE_PROTO = """
+            name: "google/type/date.proto"
+            package: "google.type"
+            syntax: "proto3"
+            message_type {
+              name: "Date"
+              field { name: "year" number: 1 label: LABEL_OPTIONAL type: TYPE_INT32 }
+              field { name: "month" number: 2 label: LABEL_OPTIONAL type: TYPE_INT32 }
+              field { name: "day" number: 3 label: LABEL_OPTIONAL type: TYPE_INT32 }
+            }
+            """;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Descriptors.FileDescriptor fileDescriptor;
+    private static DescriptorIndex descriptorIndex;
+    private static GraphQL graphQl;
+
+    private final DirectResponseWriter writer = new DirectResponseWriter(withoutJoins());
+    private final ResponseBuilder responseBuilder = new ResponseBuilder();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        var dateFile = Descriptors.FileDescriptor.buildFrom(parse(DATE_PROTO).build(), new Descriptors.FileDescriptor[0]);
+        var wrappersFile = NullableString.getDescriptor().getFile();
+        var testFile = parse(TEST_PROTO).addDependency(wrappersFile.getName()).build();
+        fileDescriptor = Descriptors.FileDescriptor.buildFrom(
+                testFile,
+                new Descriptors.FileDescriptor[]{Timestamp.getDescriptor().getFile(), dateFile, wrappersFile}
+        );
+        descriptorIndex = DescriptorIndex.of(fileDescriptor);
+        var runtimeWiring = newRuntimeWiring()
+                .scalar(GraphQLLong)
+                .scalar(DateTime)
+                .scalar(Date)
+                .wiringFactory(new WiringFactory() {
+                    @Override
+                    public DataFetcher getDefaultDataFetcher(FieldWiringEnvironment environment) {
+                        return new DynamicMessageDataFetcher(environment.getFieldDefinition().getName());
+                    }
+                })
+                .type("Query", builder -> builder
+                        .dataFetcher("items", DirectResponseWriterTest::fetchRoot)
+                        .dataFetcher("item", DirectResponseWriterTest::fetchRoot))
+                .build();
+        var schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA), runtimeWiring);
+        graphQl = GraphQL.newGraphQL(schema)
+                .instrumentation(new DirectResponseInstrumentation())
+                .build();
+    }
+
+    @Test
+    void scalarsAndNegativeVarints() throws Exception {
+        var first = item()
+                .set("id", -1_234_567_890_123L)
+                .set("int32Value", -42)
+                .set("sint32Value", -7)
+                .set("sint64Value", Long.MIN_VALUE)
+                .set("fixed64Value", 9_007_199_254_740_993L)
+                .set("sfixed32Value", -100_000)
+                .set("doubleValue", -0.5)
+                .set("floatValue", 1.25f)
+                .set("flag", true)
+                .set("status", enumValue("ARCHIVED"));
+        var second = item()
+                .set("id", 1L)
+                .set("int32Value", Integer.MIN_VALUE)
+                .set("sint32Value", Integer.MAX_VALUE)
+                .set("status", enumValue("ACTIVE"));
+        assertSameAsResponseBuilder(
+                "{ items { id int32Value sint32Value sint64Value fixed64Value sfixed32Value doubleValue floatValue flag status } }",
+                response(first, second, item())
+        );
+    }
+
+    @Test
+    void packedAndUnpackedRepeatedFields() throws Exception {
+        var first = item()
+                .add("packedIds", 1L, -2L, 300L, Long.MAX_VALUE)
+                .add("unpackedIds", -1L, 0L, 150L)
+                .add("tags", "a", "", "c")
+                .add("scores", 0.25, -1.5);
+        var second = item()
+                .add("unpackedIds", 7L);
+        var bytes = response(first, second);
+        assertTrue(hasWireType(first.build().toByteArray(), 12, 2));
+        assertTrue(hasWireType(first.build().toByteArray(), 13, 0));
+        assertSameAsResponseBuilder("{ items { packedIds unpackedIds tags scores } }", bytes);
+    }
+
+    @Test
+    void nestedMessages() throws Exception {
+        var first = item()
+                .set("id", 1L)
+                .set("main", attribute(10L, "main"))
+                .add("attributes", attribute(11L, "first"), attribute(12L, "second"));
+        var second = item()
+                .set("id", 2L)
+                .add("attributes", attribute(13L, ""));
+        assertSameAsResponseBuilder(
+                "{ items { id main { id value } attributes { value id } } }",
+                response(first, second, item())
+        );
+        assertSameAsResponseBuilder("{ item { main { value } attributes { id } } }", first.build().toByteArray());
+    }
+
+    @Test
+    void unknownFields() throws Exception {
+        var unknownFields = UnknownFieldSet.newBuilder()
+                .addField(90, UnknownFieldSet.Field.newBuilder().addVarint(-1L).build())
+                .addField(91, UnknownFieldSet.Field.newBuilder().addLengthDelimited(ByteString.copyFromUtf8("лишнее")).build())
+                .addField(92, UnknownFieldSet.Field.newBuilder().addFixed32(7).build())
+                .addField(93, UnknownFieldSet.Field.newBuilder().addFixed64(-7L).build())
+                .build();
+        var nested = DynamicMessage.newBuilder(attribute(1L, "value"))
+                .setUnknownFields(unknownFields)
+                .build();
+        var first = item()
+                .set("id", 5L)
+                .set("name", "known")
+                .set("main", nested)
+                .add("attributes", nested)
+                .unknown(unknownFields);
+        assertSameAsResponseBuilder("{ items { id name main { id value } attributes { value } } }", response(first));
+    }
+
+    @Test
+    void wellKnownTypesAndWrappers() throws Exception {
+        var first = item()
+                .set("comment", NullableString.newBuilder().setValue("комментарий").build())
+                .set("counter", NullableInt64.newBuilder().setValue(-15L).build())
+                .set("enabled", NullableBool.newBuilder().setValue(false).build())
+                .set("createdAt", Timestamp.newBuilder().setSeconds(1_650_000_000L).setNanos(123_000_000).build())
+                .set("birthDate", date(2022, 2, 28));
+        var second = item()
+                .set("comment", NullableString.newBuilder().setNullValue(NULL_VALUE).build())
+                .set("counter", NullableInt64.newBuilder().setNullValue(NULL_VALUE).build())
+                .set("createdAt", Timestamp.newBuilder().setSeconds(-86_400L).setNanos(1).build())
+                .set("birthDate", date(0, 0, 0));
+        assertSameAsResponseBuilder(
+                "{ items { comment counter enabled createdAt birthDate } }",
+                response(first, second, item())
+        );
+    }
+
+    @Test
+    void nonAsciiStrings() throws Exception {
+        var item = item()
+                .set("name", "Документ №1 — «кавычки» \"quotes\" \\ \n\t 😀 漢字")
+                .add("tags", "тег", "\u0000\u001f", "emoji 🚀")
+                .set("main", attribute(1L, "значение ✓"));
+        assertSameAsResponseBuilder("{ item { name tags main { value } } }", item.build().toByteArray());
+    }
+
+    @Test
+    void emptyList() throws Exception {
+        assertSameAsResponseBuilder("{ items { id name } }", response());
+    }
+
+    private void assertSameAsResponseBuilder(String query, byte[] bytes) throws Exception {
+        var expected = execute(query, bytes, false);
+        var actual = execute(query, bytes, true);
+        assertEquals(objectMapper.readTree(expected), objectMapper.readTree(actual), actual);
+    }
+
+    private String execute(String query, byte[] bytes, boolean direct) throws Exception {
+        DataFetcher<Object> rootFetcher = environment -> {
+            var list = environment.getFieldType() instanceof GraphQLList;
+            var outputType = fileDescriptor.findMessageTypeByName(list ? "ItemResponse" : "Item");
+            if (!direct) {
+                return responseBuilder.build(DynamicMessage.parseFrom(outputType, bytes), descriptorIndex, list);
+            }
+            var selection = writer.compile(outputType, environment.getFieldType(), environment.getSelectionSet());
+            assertNotNull(selection);
+            DirectResponses.from(environment.getGraphQlContext())
+                    .put(environment.getField().getResultKey(), writer.write(bytes, selection));
+            return null;
+        };
+        var result = graphQl.execute(ExecutionInput.newExecutionInput()
+                .query(query)
+                .graphQLContext(Map.of(DataFetcher.class, rootFetcher))
+                .build());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        return objectMapper.writeValueAsString(result.getData());
+    }
+
+    private static Object fetchRoot(DataFetchingEnvironment environment) throws Exception {
+        DataFetcher<?> rootFetcher = environment.getGraphQlContext().get(DataFetcher.class);
+        return rootFetcher.get(environment);
+    }
+
+    private static MessageBuilder item() {
+        return new MessageBuilder(fileDescriptor.findMessageTypeByName("Item"));
+    }
+
+    private static DynamicMessage attribute(long id, String value) {
+        return new MessageBuilder(fileDescriptor.findMessageTypeByName("Attribute"))
+                .set("id", id)
+                .set("value", value)
+                .build();
+    }
+
+    private static DynamicMessage date(int year, int month, int day) {
+        var descriptor = fileDescriptor.findMessageTypeByName("Item").findFieldByName("birthDate").getMessageType();
+        return new MessageBuilder(descriptor)
+                .set("year", year)
+                .set("month", month)
+                .set("day", day)
+                .build();
+    }
+
+    private static Descriptors.EnumValueDescriptor enumValue(String name) {
+        return fileDescriptor.findEnumTypeByName("Status").findValueByName(name);
+    }
+
+    private static byte[] response(MessageBuilder... items) {
+        var response = new MessageBuilder(fileDescriptor.findMessageTypeByName("ItemResponse"));
+        for (var item : items) {
+            response.add("items", item.build());
+        }
+        return response.build().toByteArray();
+    }
+
+    private static boolean hasWireType(byte[] bytes, int number, int wireType) throws Exception {
+        var input = CodedInputStream.newInstance(bytes);
+        while (true) {
+            var tag = input.readTag();
+            if (tag == 0) {
+                return false;
+            }
+            if (tag == (number << 3 | wireType)) {
+                return true;
+            }
+            input.skipField(tag);
+        }
+    }
+
+    private static FileDescriptorProto.Builder parse(String text) throws TextFormat.ParseException {
+        var builder = FileDescriptorProto.newBuilder();
+        TextFormat.merge(text, builder);
+        return builder;
+    }
+
+    private static GraphQlServicesByMethodsMap withoutJoins() {
+        return (GraphQlServicesByMethodsMap) Proxy.newProxyInstance(
+                GraphQlServicesByMethodsMap.class.getClassLoader(),
+                new Class<?>[]{GraphQlServicesByMethodsMap.class},
+                (proxy, method, args) -> "joins".equals(method.getName()) ? Map.of() : null
+        );
+    }
+
+    private static class MessageBuilder {
+
+        private final DynamicMessage.Builder builder;
+
+        private MessageBuilder(Descriptors.Descriptor descriptor) {
+            this.builder = DynamicMessage.newBuilder(descriptor);
+        }
+
+        private MessageBuilder set(String name, Object value) {
+            builder.setField(builder.getDescriptorForType().findFieldByName(name), value);
+            return this;
+        }
+
+        private MessageBuilder add(String name, Object... values) {
+            var field = builder.getDescriptorForType().findFieldByName(name);
+            List.of(values).forEach(value -> builder.addRepeatedField(field, value));
+            return this;
+        }
+
+        private MessageBuilder unknown(UnknownFieldSet unknownFields) {
+            builder.setUnknownFields(unknownFields);
+            return this;
+        }
+
+        private DynamicMessage build() {
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package ru.craftysoft.platform.gateway.builder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.TextFormat;
+import com.google.protobuf.Timestamp;
+import graphql.ExecutionInput;
+import graphql.GraphQL;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLList;
+import graphql.schema.idl.FieldWiringEnvironment;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.WiringFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+import ru.craftysoft.platform.gateway.resolver.DynamicMessageDataFetcher;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import static graphql.scalars.ExtendedScalars.DateTime;
+import static graphql.scalars.ExtendedScalars.GraphQLLong;
+import static graphql.schema.idl.RuntimeWiring.newRuntimeWiring;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectedResponseParserTest {
+
+    private static final String SCHEMA = """
+            schema {
+                query: Query
+            }
+
+            type Query {
+                items: [Item]
+                item: Item
+            }
+
+            type Attribute {
+                id: Long
+                value: String
+                child: Attribute
+            }
+
+            type Item {
+                id: Long
+                name: String
+                createdAt: DateTime
+                main: Attribute
+                attributes: [Attribute]
+            }
+
+            scalar Long
+            scalar DateTime
+            """;
+
+    private static final String TEST_PROTO = """
+            name: "test/projection.proto"
+            package: "test"
+            syntax: "proto3"
+            dependency: "google/protobuf/timestamp.proto"
+            message_type {
+              name: "Attribute"
+              field { name: "id" number: 1 label: LABEL_OPTIONAL type: TYPE_INT64 }
+              field { name: "value" number: 2 label: LABEL_OPTIONAL type: TYPE_STRING }
+              field { name: "child" number: 3 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".test.Attribute" }
+            }
+            message_type {
+              name: "Item"
+              field { name: "id" number: 1 label: LABEL_OPTIONAL type: TYPE_INT64 }
+              field { name: "name" number: 2 label: LABEL_OPTIONAL type: TYPE_STRING }
+              field { name: "createdAt" number: 3 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".google.protobuf.Timestamp" }
+              field { name: "main" number: 4 label: LABEL_OPTIONAL type: TYPE_MESSAGE type_name: ".test.Attribute" }
+              field { name: "attributes" number: 5 label: LABEL_REPEATED type: TYPE_MESSAGE type_name: ".test.Attribute" }
+            }
+            message_type {
+              name: "ItemResponse"
+              field { name: "items" number: 1 label: LABEL_REPEATED type: TYPE_MESSAGE type_name: ".test.Item" }
+            }
+            """;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Descriptors.FileDescriptor fileDescriptor;
+    private static DescriptorIndex descriptorIndex;
+    private static GraphQL graphQl;
+
+    private final ProjectedResponseParser parser = new ProjectedResponseParser(withoutJoins());
+    private final ResponseBuilder responseBuilder = new ResponseBuilder();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        var builder = FileDescriptorProto.newBuilder();
+        TextFormat.merge(TEST_PROTO, builder);
+        fileDescriptor = Descriptors.FileDescriptor.buildFrom(
+                builder.build(),
+                new Descriptors.FileDescriptor[]{Timestamp.getDescriptor().getFile()}
+        );
+        descriptorIndex = DescriptorIndex.of(fileDescriptor);
+        var runtimeWiring = newRuntimeWiring()
+                .scalar(GraphQLLong)
+                .scalar(DateTime)
+                .wiringFactory(new WiringFactory() {
+                    @Override
+                    public DataFetcher getDefaultDataFetcher(FieldWiringEnvironment environment) {
+                        return new DynamicMessageDataFetcher(environment.getFieldDefinition().getName());
+                    }
+                })
+                .type("Query", typeBuilder -> typeBuilder
+                        .dataFetcher("items", ProjectedResponseParserTest::fetchRoot)
+                        .dataFetcher("item", ProjectedResponseParserTest::fetchRoot))
+                .build();
+        var schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA), runtimeWiring);
+        graphQl = GraphQL.newGraphQL(schema).build();
+    }
+
+    @Test
+    void aliasedDuplicates() throws Exception {
+        var first = item(1L)
+                .set("main", attribute(10L, "main", attribute(100L, "child", null)))
+                .add("attributes", attribute(11L, "first", null), attribute(12L, "second", attribute(120L, "nested", null)));
+        var second = item(2L)
+                .set("main", attribute(20L, "other", null));
+        assertSameAsFullParse(
+                "{ items { a: main { id } b: main { value child { id } } c: main { child { value } } } }",
+                response(first, second, item(3L))
+        );
+        assertSameAsFullParse(
+                "{ item { x: attributes { id } y: attributes { value child { value } } } }",
+                first.build().toByteArray()
+        );
+        assertSameAsFullParse("{ first: items { id } second: items { name createdAt } }", response(first, second));
+    }
+
+    @Test
+    void fragments() throws Exception {
+        var first = item(1L)
+                .set("main", attribute(10L, "main", attribute(100L, "child", null)))
+                .add("attributes", attribute(11L, "first", null));
+        assertSameAsFullParse("""
+                { item { ...ids main { value } ... on Item { main { child { id value } } attributes { value } } } }
+                fragment ids on Item { id main { id } attributes { id } }
+                """, first.build().toByteArray());
+        assertSameAsFullParse("""
+                { items { ...names main { ...attributeIds } other: main { ...attributeValues } } }
+                fragment names on Item { name createdAt }
+                fragment attributeIds on Attribute { id child { id } }
+                fragment attributeValues on Attribute { value child { value } }
+                """, response(first, item(2L)));
+    }
+
+    private void assertSameAsFullParse(String query, byte[] bytes) throws Exception {
+        var expected = execute(query, bytes, false);
+        var actual = execute(query, bytes, true);
+        assertEquals(objectMapper.readTree(expected), objectMapper.readTree(actual), actual);
+    }
+
+    private String execute(String query, byte[] bytes, boolean projected) throws Exception {
+        DataFetcher<Object> rootFetcher = environment -> {
+            var list = environment.getFieldType() instanceof GraphQLList;
+            var outputType = fileDescriptor.findMessageTypeByName(list ? "ItemResponse" : "Item");
+            var message = projected
+                    ? parser.parse(bytes, parser.compile(outputType, list, environment.getSelectionSet()))
+                    : DynamicMessage.parseFrom(outputType, bytes);
+            return responseBuilder.build(message, descriptorIndex, list);
+        };
+        var result = graphQl.execute(ExecutionInput.newExecutionInput()
+                .query(query)
+                .graphQLContext(Map.of(DataFetcher.class, rootFetcher))
+                .build());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        return objectMapper.writeValueAsString(result.getData());
+    }
+
+    private static Object fetchRoot(DataFetchingEnvironment environment) throws Exception {
+        DataFetcher<?> rootFetcher = environment.getGraphQlContext().get(DataFetcher.class);
+        return rootFetcher.get(environment);
+    }
+
+    private static MessageBuilder item(long id) {
+        return new MessageBuilder(fileDescriptor.findMessageTypeByName("Item"))
+                .set("id", id)
+                .set("name", "item-" + id)
+                .set("createdAt", Timestamp.newBuilder().setSeconds(1_650_000_000L + id).build());
+    }
+
+    private static DynamicMessage attribute(long id, String value, DynamicMessage child) {
+        var attribute = new MessageBuilder(fileDescriptor.findMessageTypeByName("Attribute"))
+                .set("id", id)
+                .set("value", value);
+        if (child != null) {
+            attribute.set("child", child);
+        }
+        return attribute.build();
+    }
+
+    private static byte[] response(MessageBuilder... items) {
+        var response = new MessageBuilder(fileDescriptor.findMessageTypeByName("ItemResponse"));
+        for (var item : items) {
+            response.add("items", item.build());
+        }
+        return response.build().toByteArray();
+    }
+
+    private static GraphQlServicesByMethodsMap withoutJoins() {
+        return (GraphQlServicesByMethodsMap) Proxy.newProxyInstance(
+                GraphQlServicesByMethodsMap.class.getClassLoader(),
+                new Class<?>[]{GraphQlServicesByMethodsMap.class},
+                (proxy, method, args) -> "joins".equals(method.getName()) ? Map.of() : null
+        );
+    }
+
+    private static class MessageBuilder {
+
+        private final DynamicMessage.Builder builder;
+
+        private MessageBuilder(Descriptors.Descriptor descriptor) {
+            this.builder = DynamicMessage.newBuilder(descriptor);
+        }
+
+        private MessageBuilder set(String name, Object value) {
+            builder.setField(builder.getDescriptorForType().findFieldByName(name), value);
+            return this;
+        }
+
+        private MessageBuilder add(String name, Object... values) {
+            var field = builder.getDescriptorForType().findFieldByName(name);
+            for (var value : values) {
+                builder.addRepeatedField(field, value);
+            }
+            return this;
+        }
+
+        private DynamicMessage build() {
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package ru.craftysoft.platform.gateway.resolver;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphqlErrorException;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.SelectedField;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.craftysoft.platform.gateway.builder.ResponseBuilder;
+import ru.craftysoft.platform.gateway.builder.dynamic.DescriptorIndex;
+import ru.craftysoft.platform.gateway.configuration.instrumentation.ExecutionTimings;
+import ru.craftysoft.platform.gateway.configuration.property.GraphQlServicesByMethodsMap;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static graphql.scalars.ExtendedScalars.GraphQLLong;
+import static graphql.schema.idl.RuntimeWiring.newRuntimeWiring;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JoinResolverTest {
+
+    private static final String SCHEMA = """
+            schema {
+                query: Query
+            }
+
+            type Query {
+                documents(count: Int): [Document]
+            }
+
+            type Document {
+                id: Long
+                attributes: [Attribute]
+            }
+
+            type Attribute {
+                id: Long
+                value: String
+            }
+
+            scalar Long
+            """;
+
+    private static final int SERVICE_LIMIT = 20;
+    private static final int MAX_CONCURRENCY = 8;
+
+    private static final ResponseBuilder responseBuilder = new ResponseBuilder();
+
+    private static Descriptors.Descriptor documentDescriptor;
+    private static DescriptorIndex descriptorIndex;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final ConcurrentLinkedQueue<List<String>> selections = new ConcurrentLinkedQueue<>();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        var file = FileDescriptorProto.newBuilder()
+                .setName("test/document.proto")
+                .setPackage("test")
+                .setSyntax("proto3")
+                .addMessageType(DescriptorProto.newBuilder()
+                        .setName("Document")
+                        .addField(FieldDescriptorProto.newBuilder()
+                                .setName("id")
+                                .setNumber(1)
+                                .setType(FieldDescriptorProto.Type.TYPE_INT64)
+                                .setLabel(FieldDescriptorProto.Label.LABEL_OPTIONAL)))
+                .build();
+        var fileDescriptor = Descriptors.FileDescriptor.buildFrom(file, new Descriptors.FileDescriptor[0]);
+        documentDescriptor = fileDescriptor.findMessageTypeByName("Document");
+        descriptorIndex = DescriptorIndex.of(fileDescriptor);
+    }
+
+    @Test
+    void moreParentsThanServiceLimit() {
+        var result = execute("{ documents(count: %d) { attributes { id } } }".formatted(SERVICE_LIMIT * 2), Set.of());
+
+        assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+        var documents = documents(result);
+        assertEquals(SERVICE_LIMIT * 2, documents.size());
+        for (int id = 0; id < documents.size(); id++) {
+            assertEquals(List.of(Map.of("id", id * 10L)), documents.get(id).get("attributes"));
+        }
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENCY, () -> "maxInFlight=" + maxInFlight.get());
+    }
+
+    @Test
+    void failedKeyFailsOnlyItsOwnField() {
+        var result = execute("{ documents(count: %d) { attributes { id } } }".formatted(SERVICE_LIMIT * 2), Set.of(13L));
+
+        assertEquals(1, result.getErrors().size(), () -> result.getErrors().toString());
+        assertEquals(List.of("documents", 13, "attributes"), result.getErrors().get(0).getPath());
+        var documents = documents(result);
+        for (int id = 0; id < documents.size(); id++) {
+            var expected = id == 13 ? null : List.of(Map.of("id", id * 10L));
+            assertEquals(expected, documents.get(id).get("attributes"));
+        }
+    }
+
+    @Test
+    void defaultScalarKeyResolves() {
+        var result = execute("{ documents(count: 1) { attributes { id } } }", Set.of());
+
+        assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+        assertEquals(List.of(Map.of("id", 0L)), documents(result).get(0).get("attributes"));
+    }
+
+    @Test
+    void aliasedSelectionsLoadSeparately() {
+        var result = execute("{ documents(count: 3) { a: attributes { id } b: attributes { value } } }", Set.of());
+
+        assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+        assertEquals(6, selections.size());
+        assertEquals(3, selections.stream().filter(List.of("id")::equals).count());
+        assertEquals(3, selections.stream().filter(List.of("value")::equals).count());
+        var document = documents(result).get(2);
+        assertEquals(List.of(Map.of("id", 20L)), document.get("a"));
+        assertEquals(List.of(Map.of("value", "value-2")), document.get("b"));
+    }
+
+    private ExecutionResult execute(String query, Set<Long> failingKeys) {
+        var joinResolver = new JoinResolver(new LimitedMainResolver(failingKeys), withJoin());
+        var dataFetchers = joinResolver.dataFetchers();
+        var runtimeWiring = newRuntimeWiring()
+                .scalar(GraphQLLong)
+                .type("Query", builder -> builder.dataFetcher("documents", JoinResolverTest::fetchDocuments))
+                .type("Document", builder -> builder.dataFetcher("attributes", dataFetchers.get(FieldCoordinates.coordinates("Document", "attributes"))))
+                .build();
+        var schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SCHEMA), runtimeWiring);
+        var graphQl = GraphQL.newGraphQL(schema).build();
+        return graphQl.execute(ExecutionInput.newExecutionInput()
+                .query(query)
+                .dataLoaderRegistry(joinResolver.dataLoaderRegistry())
+                .build());
+    }
+
+    private static List<Object> fetchDocuments(DataFetchingEnvironment environment) throws InvalidProtocolBufferException {
+        int count = environment.getArgument("count");
+        var id = documentDescriptor.findFieldByName("id");
+        var documents = new ArrayList<>(count);
+        for (long value = 0; value < count; value++) {
+            var bytes = DynamicMessage.newBuilder(documentDescriptor)
+                    .setField(id, value)
+                    .build()
+                    .toByteArray();
+            documents.add(responseBuilder.build(DynamicMessage.parseFrom(documentDescriptor, bytes), descriptorIndex, false));
+        }
+        return documents;
+    }
+
+    private static List<Map<String, Object>> documents(ExecutionResult result) {
+        Map<String, List<Map<String, Object>>> data = result.getData();
+        return data.get("documents");
+    }
+
+    private static GraphQlServicesByMethodsMap withJoin() {
+        var join = new GraphQlServicesByMethodsMap.JoinConfiguration() {
+            @Override
+            public String method() {
+                return "attributeFilter";
+            }
+
+            @Override
+            public String argument() {
+                return "documentId";
+            }
+
+            @Override
+            public String sourceField() {
+                return "id";
+            }
+
+            @Override
+            public int maxConcurrency() {
+                return MAX_CONCURRENCY;
+            }
+        };
+        return (GraphQlServicesByMethodsMap) Proxy.newProxyInstance(
+                GraphQlServicesByMethodsMap.class.getClassLoader(),
+                new Class<?>[]{GraphQlServicesByMethodsMap.class},
+                (proxy, method, args) -> "joins".equals(method.getName()) ? Map.of("Document.attributes", join) : null
+        );
+    }
+
+    private class LimitedMainResolver extends MainResolver {
+
+        private final Set<Long> failingKeys;
+
+        private LimitedMainResolver(Set<Long> failingKeys) {
+            super(null, null, null, null, null, null, null, null, null, null);
+            this.failingKeys = failingKeys;
+        }
+
+        @Override
+        public Uni<Object> resolve(String methodName,
+                                   Map<String, Object> request,
+                                   DataFetchingFieldSelectionSet selectionSet,
+                                   boolean list,
+                                   Deadline deadline,
+                                   ExecutionTimings.FieldTiming timing) {
+            var key = (Long) request.get("documentId");
+            selections.add(selectionSet.getImmediateFields().stream().map(SelectedField::getName).toList());
+            var current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            if (current > SERVICE_LIMIT) {
+                inFlight.decrementAndGet();
+                return Uni.createFrom().failure(GraphqlErrorException.newErrorException()
+                        .message("Превышен лимит одновременных запросов к сервису 'attributes'")
+                        .extensions(Map.of("code", "SERVICE_OVERLOADED"))
+                        .build());
+            }
+            Uni<Object> response = failingKeys.contains(key)
+                    ? Uni.createFrom().failure(Status.NOT_FOUND.asRuntimeException())
+                    : Uni.createFrom().item(List.of(Map.of("id", key * 10, "value", "value-" + key)));
+            return response
+                    .onItemOrFailure().transformToUni((item, failure) -> Uni.createFrom().voidItem()
+                            .onItem().delayIt().by(Duration.ofMillis(5))
+                            .onItem().transformToUni(ignored -> failure == null
+                                    ? Uni.createFrom().item(item)
+                                    : Uni.createFrom().failure(failure)))
+                    .onTermination().invoke(inFlight::decrementAndGet);
+        }
+    }
+}
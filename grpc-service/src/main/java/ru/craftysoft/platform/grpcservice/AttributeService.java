@@ -1,6 +1,7 @@
 package ru.craftysoft.platform.grpcservice;
 
 import com.google.protobuf.NullValue;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import io.quarkus.grpc.GrpcService;
 import ru.craftysoft.platform.grpcservice.proto.AttributeFilterRequest;
@@ -10,6 +11,7 @@ import ru.craftysoft.proto.NullableString;
 
 import javax.annotation.Nullable;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -33,6 +35,21 @@ public class AttributeService extends AttributeServiceGrpc.AttributeServiceImplB
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void attributeStream(AttributeFilterRequest request, StreamObserver<ru.craftysoft.platform.grpcservice.proto.Attribute> responseObserver) {
+        var serverCallStreamObserver = (ServerCallStreamObserver<ru.craftysoft.platform.grpcservice.proto.Attribute>) responseObserver;
+        var iterator = process(request).getAttributesList().iterator();
+        var completed = new AtomicBoolean();
+        serverCallStreamObserver.setOnReadyHandler(() -> {
+            while (serverCallStreamObserver.isReady() && iterator.hasNext()) {
+                serverCallStreamObserver.onNext(iterator.next());
+            }
+            if (!iterator.hasNext() && completed.compareAndSet(false, true)) {
+                serverCallStreamObserver.onCompleted();
+            }
+        });
+    }
+
     public AttributeFilterResponse process(AttributeFilterRequest request) {
         var documentId = request.getDocumentId();
         var filteredAttributes = attributes.stream()
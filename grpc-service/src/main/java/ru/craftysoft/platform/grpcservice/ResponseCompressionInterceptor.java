@@ -0,0 +1,28 @@
+package ru.craftysoft.platform.grpcservice;
+
+import io.grpc.CompressorRegistry;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.quarkus.grpc.GlobalInterceptor;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import static io.grpc.Metadata.ASCII_STRING_MARSHALLER;
+
+@ApplicationScoped
+@GlobalInterceptor
+public class ResponseCompressionInterceptor implements ServerInterceptor {
+
+    private static final Metadata.Key<String> RESPONSE_ENCODING_HEADER = Metadata.Key.of("x-response-encoding", ASCII_STRING_MARSHALLER);
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        var encoding = headers.get(RESPONSE_ENCODING_HEADER);
+        if (encoding != null && CompressorRegistry.getDefaultInstance().lookupCompressor(encoding) != null) {
+            call.setCompression(encoding);
+        }
+        return next.startCall(call, headers);
+    }
+}